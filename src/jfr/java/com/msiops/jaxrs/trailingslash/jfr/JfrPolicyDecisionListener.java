@@ -0,0 +1,111 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash.jfr;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.ws.rs.container.ContainerRequestContext;
+
+import jdk.jfr.EventType;
+
+import com.msiops.jaxrs.trailingslash.EnforcementOptions;
+import com.msiops.jaxrs.trailingslash.Policy;
+import com.msiops.jaxrs.trailingslash.PolicyDecisionListener;
+import com.msiops.jaxrs.trailingslash.PolicySource;
+
+/**
+ * <p>
+ * Decision listener that emits Java Flight Recorder events. Every rejection
+ * emits a <code>com.msiops.jaxrs.trailingslash.Rejection</code> event, and a
+ * sample of passes emits <code>com.msiops.jaxrs.trailingslash.Pass</code>
+ * events. Both carry the policy, its source, and the raw path length. Install
+ * it with {@link EnforcementOptions#withListener}.
+ * </p>
+ *
+ * <p>
+ * When no recording enables an event type, a decision costs an enabled check
+ * and nothing is allocated, so the listener can stay installed in production.
+ * </p>
+ */
+public final class JfrPolicyDecisionListener implements PolicyDecisionListener {
+
+    private static final EventType PASS = EventType
+            .getEventType(PassEvent.class);
+
+    private static final EventType REJECTION = EventType
+            .getEventType(RejectionEvent.class);
+
+    private static String name(final Policy policy) {
+        return policy instanceof Enum ? ((Enum<?>) policy).name() : policy
+                .getClass().getName();
+    }
+
+    private final int passSampleInterval;
+
+    /**
+     * Create listener that emits an event for one pass in 100.
+     */
+    public JfrPolicyDecisionListener() {
+        this(100);
+    }
+
+    /**
+     * Create listener with a specific pass sampling rate.
+     *
+     * @param passSampleInterval
+     *            emit an event for one pass in this many, on average.
+     *
+     * @throws IllegalArgumentException
+     *             if the interval is less than one.
+     */
+    public JfrPolicyDecisionListener(final int passSampleInterval) {
+        if (passSampleInterval < 1) {
+            throw new IllegalArgumentException("sample interval must be positive");
+        }
+        this.passSampleInterval = passSampleInterval;
+    }
+
+    @Override
+    public void onDecision(final ContainerRequestContext requestContext,
+            final Policy policy, final PolicySource source, final boolean passed) {
+
+        final PolicyDecisionEvent event;
+        if (passed) {
+            if (!PASS.isEnabled()
+                    || (this.passSampleInterval != 1 && ThreadLocalRandom
+                            .current().nextInt(this.passSampleInterval) != 0)) {
+                return;
+            }
+            event = new PassEvent();
+        } else {
+            if (!REJECTION.isEnabled()) {
+                return;
+            }
+            event = new RejectionEvent();
+        }
+
+        if (event.shouldCommit()) {
+            event.policy = name(policy);
+            event.source = source.name();
+            event.pathLength = requestContext.getUriInfo().getRequestUri()
+                    .getRawPath().length();
+            event.commit();
+        }
+
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+
+/**
+ * Fields shared by the decision events.
+ */
+@Category({ "JAX-RS", "Trailing Slash" })
+abstract class PolicyDecisionEvent extends jdk.jfr.Event {
+
+    @Label("Policy")
+    @Description("Name of the applied policy")
+    String policy;
+
+    @Label("Policy Source")
+    @Description("Where the policy came from")
+    String source;
+
+    @Label("Path Length")
+    @Description("Length of the raw request path")
+    int pathLength;
+
+}
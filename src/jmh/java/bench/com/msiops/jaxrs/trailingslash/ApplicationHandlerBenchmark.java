@@ -0,0 +1,83 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package bench.com.msiops.jaxrs.trailingslash;
+
+import java.net.URI;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * Whole request processing through a Jersey {@link ApplicationHandler}, in
+ * process and without sockets, under each {@link Configuration}. Matching,
+ * filter chains, the property bag, name-binding dispatch, and entity writing
+ * all cost what they cost in production, but there is no network noise.
+ * </p>
+ *
+ * <p>
+ * The difference between a configuration and {@link Configuration#BASELINE}
+ * is what the library adds per request. <code>SHORT_BARE</code> passes and
+ * measures the filter chain; <code>SHORT_SLASH</code> is rejected and adds
+ * <code>abortWith</code> and the error response.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ApplicationHandlerBenchmark {
+
+    @Param({ "BASELINE", "ENFORCEMENT_ONLY", "GLOBAL", "STATIC", "DYNAMIC",
+            "FEATURE" })
+    public Configuration configuration;
+
+    @Param({ "SHORT_BARE", "SHORT_SLASH" })
+    public PathShape shape;
+
+    private ApplicationHandler handler;
+
+    private URI uri;
+
+    @Setup
+    public void setup() {
+        this.handler = new ApplicationHandler(this.configuration.config());
+        this.uri = Requests.uri(this.shape);
+    }
+
+    @Benchmark
+    public ContainerResponse apply() throws InterruptedException,
+            ExecutionException {
+        return this.handler.apply(Requests.get(this.uri)).get();
+    }
+
+}
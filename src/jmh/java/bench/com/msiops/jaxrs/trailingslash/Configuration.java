@@ -0,0 +1,151 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package bench.com.msiops.jaxrs.trailingslash;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+
+import org.glassfish.jersey.server.ResourceConfig;
+
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.ProhibitTrailingSlash;
+import com.msiops.jaxrs.trailingslash.ProhibitTrailingSlashFilter;
+import com.msiops.jaxrs.trailingslash.ProhibitTrailingSlashStaticFilter;
+import com.msiops.jaxrs.trailingslash.TrailingSlashEnforcementFilter;
+import com.msiops.jaxrs.trailingslash.TrailingSlashFeature;
+
+/**
+ * Ways to configure a Jersey application with a PROHIBIT policy on its one
+ * resource at <code>/data</code>, as compared by the end-to-end benchmarks.
+ */
+public enum Configuration {
+
+    /**
+     * No trailing slash handling at all.
+     */
+    BASELINE {
+        @Override
+        ResourceConfig config() {
+            return new ResourceConfig(PlainResource.class);
+        }
+    },
+
+    /**
+     * Enforcement filter alone, applying its default policy.
+     */
+    ENFORCEMENT_ONLY {
+        @Override
+        ResourceConfig config() {
+            return new ResourceConfig(PlainResource.class,
+                    TrailingSlashEnforcementFilter.class);
+        }
+    },
+
+    /**
+     * Enforcement filter plus a global policy injector.
+     */
+    GLOBAL {
+        @Override
+        ResourceConfig config() {
+            return new ResourceConfig(PlainResource.class,
+                    TrailingSlashEnforcementFilter.class,
+                    ProhibitTrailingSlashFilter.class);
+        }
+    },
+
+    /**
+     * Enforcement filter plus a name-bound injector selected by annotation.
+     */
+    STATIC {
+        @Override
+        ResourceConfig config() {
+            return new ResourceConfig(AnnotatedResource.class,
+                    TrailingSlashEnforcementFilter.class,
+                    ProhibitTrailingSlashStaticFilter.class);
+        }
+    },
+
+    /**
+     * Enforcement filter plus an injector bound by a dynamic feature.
+     */
+    DYNAMIC {
+        @Override
+        ResourceConfig config() {
+            return new ResourceConfig(PlainResource.class,
+                    TrailingSlashEnforcementFilter.class,
+                    InjectingFeature.class);
+        }
+    },
+
+    /**
+     * {@link TrailingSlashFeature}, policy resolved at deployment.
+     */
+    FEATURE {
+        @Override
+        ResourceConfig config() {
+            return new ResourceConfig(PlainResource.class)
+                    .register(new TrailingSlashFeature(PolicyImpl.PROHIBIT));
+        }
+    };
+
+    /**
+     * Create the application.
+     *
+     * @return new application configuration.
+     */
+    abstract ResourceConfig config();
+
+    @Path("/data")
+    @Produces("text/plain")
+    public static final class PlainResource {
+
+        @GET
+        public String get() {
+            return "data";
+        }
+
+    }
+
+    @Path("/data")
+    @Produces("text/plain")
+    @ProhibitTrailingSlash
+    public static final class AnnotatedResource {
+
+        @GET
+        public String get() {
+            return "data";
+        }
+
+    }
+
+    public static final class InjectingFeature implements DynamicFeature {
+
+        @Override
+        public void configure(final ResourceInfo resourceInfo,
+                final FeatureContext context) {
+            if (resourceInfo.getResourceClass() == PlainResource.class) {
+                context.register(ProhibitTrailingSlashFilter.class);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package bench.com.msiops.jaxrs.trailingslash;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.glassfish.jersey.server.ContainerRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.msiops.jaxrs.trailingslash.EnforcementOptions;
+import com.msiops.jaxrs.trailingslash.PathEvaluation;
+import com.msiops.jaxrs.trailingslash.PolicyDecisionCounters;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.TrailingSlashEnforcementFilter;
+
+/**
+ * <p>
+ * Throughput of one enforcement filter shared by all hardware threads, with
+ * and without {@link PolicyDecisionCounters}. With <code>split=false</code>
+ * every thread passes the same policy, so all increments hit the same count,
+ * the worst case for contention. With <code>split=true</code> every other
+ * thread passes under an injected {@link PolicyImpl#REQUIRE} instead, so
+ * threads increment two different counts, which would suffer from false
+ * sharing without padding.
+ * </p>
+ *
+ * <p>
+ * Each thread filters its own warm request, so the filter logic and the
+ * counter increment are all that is measured. Run with
+ * <code>-t</code> to vary the thread count.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class DecisionCountersBenchmark {
+
+    /**
+     * Per-thread request.
+     */
+    @State(Scope.Thread)
+    public static class Request {
+
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        private ContainerRequest request;
+
+        @Setup
+        public void setup(final DecisionCountersBenchmark b) {
+            if (b.split && THREADS.getAndIncrement() % 2 != 0) {
+                this.request = Requests.get(Requests
+                        .uri(PathShape.SHORT_SLASH));
+                this.request.setProperty(
+                        TrailingSlashEnforcementFilter.REQUEST_KEY,
+                        PolicyImpl.REQUIRE);
+            } else {
+                this.request = Requests.get(Requests
+                        .uri(PathShape.SHORT_BARE));
+            }
+        }
+
+    }
+
+    @Param({ "false", "true" })
+    public boolean counted;
+
+    @Param({ "false", "true" })
+    public boolean split;
+
+    private TrailingSlashEnforcementFilter filter;
+
+    @Setup
+    public void setup() {
+        final EnforcementOptions options = EnforcementOptions.DEFAULTS
+                .withPathEvaluation(PathEvaluation.RAW);
+        this.filter = new TrailingSlashEnforcementFilter(
+                this.counted ? options
+                        .withListener(new PolicyDecisionCounters()) : options);
+    }
+
+    @Benchmark
+    public ContainerRequest filter(final Request r) throws IOException {
+        this.filter.filter(r.request);
+        return r.request;
+    }
+
+}
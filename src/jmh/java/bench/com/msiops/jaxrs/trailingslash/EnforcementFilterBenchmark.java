@@ -0,0 +1,131 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package bench.com.msiops.jaxrs.trailingslash;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.jersey.server.ContainerRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.msiops.jaxrs.trailingslash.PathEvaluation;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.TrailingSlashEnforcementFilter;
+
+/**
+ * <p>
+ * Cost of {@link TrailingSlashEnforcementFilter#filter} on a Jersey request
+ * context, with and without an injected policy, for pass and reject outcomes.
+ * </p>
+ *
+ * <p>
+ * Jersey caches the decoded path in the request, so per-request cost is only
+ * visible on a fresh request. {@link #freshRequest()} is the baseline to
+ * subtract from {@link #filterFreshRequest()}. {@link #filterWarmRequest()}
+ * filters the same request over and over and shows the cost of the filter
+ * logic alone.
+ * </p>
+ *
+ * <p>
+ * Compare {@link PathEvaluation#DECODED} with {@link PathEvaluation#RAW} on
+ * {@link #filterFreshRequest()} to see what path decoding costs.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class EnforcementFilterBenchmark {
+
+    /**
+     * Policy found in the request property, if any.
+     */
+    public enum Injected {
+        NONE(null), ALLOW(PolicyImpl.ALLOW), PROHIBIT(PolicyImpl.PROHIBIT), REQUIRE(
+                PolicyImpl.REQUIRE);
+
+        private final PolicyImpl policy;
+
+        private Injected(final PolicyImpl policy) {
+            this.policy = policy;
+        }
+    }
+
+    @Param({ "NONE", "ALLOW", "PROHIBIT", "REQUIRE" })
+    public Injected injected;
+
+    @Param({ "SHORT_BARE", "SHORT_SLASH", "LONG_BARE", "LONG_SLASH",
+            "ENCODED_BARE", "ENCODED_SLASH" })
+    public PathShape shape;
+
+    @Param({ "DECODED", "RAW" })
+    public PathEvaluation pathEvaluation;
+
+    private TrailingSlashEnforcementFilter filter;
+
+    private URI uri;
+
+    private ContainerRequest warm;
+
+    @Setup
+    public void setup() {
+        this.filter = new TrailingSlashEnforcementFilter(this.pathEvaluation);
+        this.uri = Requests.uri(this.shape);
+        this.warm = request();
+    }
+
+    @Benchmark
+    public ContainerRequest filterFreshRequest() throws IOException {
+        final ContainerRequest request = request();
+        this.filter.filter(request);
+        return request;
+    }
+
+    @Benchmark
+    public ContainerRequest filterWarmRequest() throws IOException {
+        this.filter.filter(this.warm);
+        return this.warm;
+    }
+
+    @Benchmark
+    public ContainerRequest freshRequest() {
+        return request();
+    }
+
+    private ContainerRequest request() {
+        final ContainerRequest request = Requests.get(this.uri);
+        if (this.injected.policy != null) {
+            request.setProperty(TrailingSlashEnforcementFilter.REQUEST_KEY,
+                    this.injected.policy);
+        }
+        return request;
+    }
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package bench.com.msiops.jaxrs.trailingslash;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.glassfish.jersey.jdkhttp.JdkHttpServerFactory;
+
+import com.msiops.jaxrs.trailingslash.LatencyHistogram;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * <p>
+ * End-to-end HTTP load test of each {@link Configuration} on the JDK HTTP
+ * server, as used by the functional tests. Concurrent clients send keep-alive
+ * GET requests for a fixed time, and requests per second and latency
+ * percentiles are reported per configuration.
+ * </p>
+ *
+ * <p>
+ * Options, all optional: <code>-c</code> clients (8), <code>-w</code> warmup
+ * seconds per configuration (5), <code>-d</code> measured seconds (10), <code>-p</code> request
+ * path (<code>data</code>; <code>data/</code> measures rejections), and
+ * configuration names (all).
+ * </p>
+ */
+public final class HttpLoadHarness {
+
+    private static final int PORT = 8180;
+
+    public static void main(final String[] args) throws Exception {
+
+        int clients = 8;
+        int warmup = 5;
+        int duration = 10;
+        String path = "data";
+        final List<Configuration> configurations = new ArrayList<>();
+        for (int i = 0; i < args.length; ++i) {
+            switch (args[i]) {
+            case "-c":
+                clients = Integer.parseInt(args[++i]);
+                break;
+            case "-w":
+                warmup = Integer.parseInt(args[++i]);
+                break;
+            case "-d":
+                duration = Integer.parseInt(args[++i]);
+                break;
+            case "-p":
+                path = args[++i];
+                break;
+            default:
+                configurations.add(Configuration.valueOf(args[i]));
+            }
+        }
+        if (configurations.isEmpty()) {
+            configurations.addAll(Arrays.asList(Configuration.values()));
+        }
+
+        /*
+         * let every client keep its connection, and keep Nagle's algorithm
+         * from adding delayed-ACK stalls to small responses.
+         */
+        System.setProperty("http.maxConnections", Integer.toString(clients));
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        /*
+         * one unmeasured pass so that the first configuration does not carry
+         * the JIT warmup of the server and client code they share.
+         */
+        for (final Configuration c : configurations) {
+            run(c, clients, warmup, 0, path);
+        }
+
+        System.out.printf("%-17s %10s %9s %9s %9s %9s%n", "configuration",
+                "req/s", "p50 us", "p99 us", "p99.9 us", "max us");
+        for (final Configuration c : configurations) {
+            final Result r = run(c, clients, warmup, duration, path);
+            final LatencyHistogram.Snapshot s = r.latency;
+            System.out.printf("%-17s %10.0f %9.1f %9.1f %9.1f %9.1f%n", c,
+                    r.requests / (double) duration, s.p50() / 1e3,
+                    s.p99() / 1e3, s.p999() / 1e3, s.max() / 1e3);
+        }
+
+    }
+
+    private static void drain(final HttpURLConnection conn) throws IOException {
+        final InputStream in = conn.getResponseCode() < 400 ? conn
+                .getInputStream() : conn.getErrorStream();
+        if (in == null) {
+            // error without an entity
+            return;
+        }
+        try (InputStream body = in) {
+            final byte[] buffer = new byte[256];
+            while (body.read(buffer) >= 0) {
+                // discard, so the connection can be reused
+            }
+        }
+    }
+
+    private static Result run(final Configuration configuration,
+            final int clients, final int warmup, final int duration,
+            final String path) throws Exception {
+
+        final HttpServer server = JdkHttpServerFactory.createHttpServer(
+                URI.create("http://localhost:" + PORT + "/"),
+                configuration.config(), false);
+        final ExecutorService workers = Executors.newFixedThreadPool(clients);
+        server.setExecutor(workers);
+        server.start();
+
+        try {
+            final URL url = new URL("http://localhost:" + PORT + "/" + path);
+            final AtomicBoolean measuring = new AtomicBoolean();
+            final AtomicBoolean stopped = new AtomicBoolean();
+            final LongAdder requests = new LongAdder();
+            final LatencyHistogram latency = new LatencyHistogram();
+
+            final Thread[] threads = new Thread[clients];
+            for (int i = 0; i < clients; ++i) {
+                threads[i] = new Thread(() -> {
+                    while (!stopped.get()) {
+                        final long start = System.nanoTime();
+                        try {
+                            drain((HttpURLConnection) url.openConnection());
+                        } catch (final IOException x) {
+                            throw new IllegalStateException(x);
+                        }
+                        if (measuring.get()) {
+                            latency.record(System.nanoTime() - start);
+                            requests.increment();
+                        }
+                    }
+                }, "client-" + i);
+                threads[i].start();
+            }
+
+            TimeUnit.SECONDS.sleep(warmup);
+            measuring.set(true);
+            TimeUnit.SECONDS.sleep(duration);
+            measuring.set(false);
+            stopped.set(true);
+            for (final Thread t : threads) {
+                t.join();
+            }
+            return new Result(requests.sum(), latency.snapshot());
+        } finally {
+            server.stop(0);
+            workers.shutdownNow();
+            waitForPort();
+        }
+
+    }
+
+    private static void waitForPort() throws InterruptedException {
+        /*
+         * the JDK server releases its port asynchronously.
+         */
+        for (int i = 0; i < 50; ++i) {
+            try (ServerSocket s = new ServerSocket()) {
+                s.setReuseAddress(true);
+                s.bind(new InetSocketAddress("localhost", PORT));
+                return;
+            } catch (final IOException x) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+        }
+    }
+
+    private HttpLoadHarness() {
+        throw new AssertionError("no instances");
+    }
+
+    private static final class Result {
+
+        final LatencyHistogram.Snapshot latency;
+
+        final long requests;
+
+        Result(final long requests, final LatencyHistogram.Snapshot latency) {
+            this.requests = requests;
+            this.latency = latency;
+        }
+
+    }
+
+}
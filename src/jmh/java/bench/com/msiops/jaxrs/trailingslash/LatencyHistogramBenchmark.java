@@ -0,0 +1,76 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package bench.com.msiops.jaxrs.trailingslash;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.jersey.server.ContainerRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.msiops.jaxrs.trailingslash.EnforcementOptions;
+import com.msiops.jaxrs.trailingslash.LatencyHistogram;
+import com.msiops.jaxrs.trailingslash.PathEvaluation;
+import com.msiops.jaxrs.trailingslash.TrailingSlashEnforcementFilter;
+
+/**
+ * Cost of timing enforcement filter calls into a {@link LatencyHistogram},
+ * by sample interval. An interval of 0 means no histogram.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class LatencyHistogramBenchmark {
+
+    @Param({ "0", "1", "100" })
+    public int sampleInterval;
+
+    private TrailingSlashEnforcementFilter filter;
+
+    private ContainerRequest request;
+
+    @Setup
+    public void setup() {
+        final EnforcementOptions options = EnforcementOptions.DEFAULTS
+                .withPathEvaluation(PathEvaluation.RAW);
+        this.filter = new TrailingSlashEnforcementFilter(
+                this.sampleInterval == 0 ? options : options
+                        .withLatencyHistogram(new LatencyHistogram(
+                                this.sampleInterval)));
+        this.request = Requests.get(Requests.uri(PathShape.SHORT_BARE));
+    }
+
+    @Benchmark
+    public ContainerRequest filter() throws IOException {
+        this.filter.filter(this.request);
+        return this.request;
+    }
+
+}
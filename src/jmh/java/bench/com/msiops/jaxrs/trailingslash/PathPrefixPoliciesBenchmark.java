@@ -0,0 +1,92 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package bench.com.msiops.jaxrs.trailingslash;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.msiops.jaxrs.trailingslash.PathPrefixPolicies;
+import com.msiops.jaxrs.trailingslash.Policy;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+
+/**
+ * Cost of {@link PathPrefixPolicies#lookup(String)} as the number of rules
+ * grows. Lookup cost should depend on the path only.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PathPrefixPoliciesBenchmark {
+
+    @Param({ "10", "1000", "100000" })
+    public int rules;
+
+    private String hit;
+
+    private PathPrefixPolicies policies;
+
+    private String miss;
+
+    @Setup
+    public void setup() {
+        final PolicyImpl[] values = PolicyImpl.values();
+        final PathPrefixPolicies.Builder b = PathPrefixPolicies.builder();
+        for (int i = 0; i < this.rules; ++i) {
+            b.rule("/api/v" + (i % 7) + "/collection" + i + "/**",
+                    values[i % values.length]);
+        }
+        this.policies = b.build();
+        this.hit = "api/v3/collection" + (this.rules / 7 * 7 + 3 - 7)
+                + "/items/42/tags/";
+        this.miss = "static/css/site/theme/dark/main.css";
+    }
+
+    /**
+     * Lookup of a path below a rule.
+     *
+     * @return policy.
+     */
+    @Benchmark
+    public Policy lookupHit() {
+        return this.policies.lookup(this.hit);
+    }
+
+    /**
+     * Lookup of a path no rule applies to.
+     *
+     * @return null.
+     */
+    @Benchmark
+    public Policy lookupMiss() {
+        return this.policies.lookup(this.miss);
+    }
+
+}
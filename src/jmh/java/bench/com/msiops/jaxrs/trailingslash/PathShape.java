@@ -0,0 +1,62 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package bench.com.msiops.jaxrs.trailingslash;
+
+/**
+ * Request path shapes exercised by the benchmarks. Each shape comes with and
+ * without a trailing slash so that every policy sees both pass and reject
+ * outcomes.
+ */
+public enum PathShape {
+
+    SHORT_BARE("data"),
+
+    SHORT_SLASH("data/"),
+
+    LONG_BARE(longPath()),
+
+    LONG_SLASH(longPath() + "/"),
+
+    ENCODED_BARE("caf%C3%A9/men%C3%BC/d%20x/na%2Fme"),
+
+    ENCODED_SLASH("caf%C3%A9/men%C3%BC/d%20x/na%2Fme/");
+
+    private static String longPath() {
+        final StringBuilder b = new StringBuilder("data");
+        for (int i = 0; i < 40; ++i) {
+            b.append("/segment").append(i);
+        }
+        return b.toString();
+    }
+
+    private final String encoded;
+
+    private PathShape(final String encoded) {
+        this.encoded = encoded;
+    }
+
+    /**
+     * Application-relative path as it appears on the wire, i.e.
+     * percent-encoded.
+     *
+     * @return encoded relative path.
+     */
+    public String encoded() {
+        return this.encoded;
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package bench.com.msiops.jaxrs.trailingslash;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+
+/**
+ * Cost of {@link PolicyImpl#pass(String)} for each policy constant over
+ * short, long, and percent-encoded paths with and without a trailing slash.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PolicyBenchmark {
+
+    @Param({ "ALLOW", "PROHIBIT", "REQUIRE" })
+    public PolicyImpl policy;
+
+    @Param({ "SHORT_BARE", "SHORT_SLASH", "LONG_BARE", "LONG_SLASH",
+            "ENCODED_BARE", "ENCODED_SLASH" })
+    public PathShape shape;
+
+    private String decoded;
+
+    private String raw;
+
+    @Setup
+    public void setup() {
+        final URI uri = Requests.uri(this.shape);
+        this.decoded = uri.getPath();
+        this.raw = uri.getRawPath();
+    }
+
+    /**
+     * Policy applied to the decoded path, as the enforcement filter does for
+     * custom policies by default.
+     *
+     * @return pass result.
+     */
+    @Benchmark
+    public boolean passDecoded() {
+        return this.policy.pass(this.decoded);
+    }
+
+    /**
+     * Policy applied to the raw, still-encoded path, as the enforcement filter
+     * does for these built-in policies.
+     *
+     * @return pass result.
+     */
+    @Benchmark
+    public boolean passRaw() {
+        return this.policy.pass(this.raw);
+    }
+
+}
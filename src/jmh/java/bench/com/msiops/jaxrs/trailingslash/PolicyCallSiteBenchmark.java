@@ -0,0 +1,101 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package bench.com.msiops.jaxrs.trailingslash;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.msiops.jaxrs.trailingslash.Policy;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+
+/**
+ * Cost of the {@link Policy#pass(String)} call site as it sees more receiver
+ * types. Each {@link PolicyImpl} constant is its own class, so an application
+ * that mixes policies (and perhaps a custom one) makes the enforcement call
+ * site bimorphic or megamorphic.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PolicyCallSiteBenchmark {
+
+    private static final int OPS = 1024;
+
+    /**
+     * Receiver type profile of the call site.
+     */
+    public enum Morphism {
+
+        MONOMORPHIC(PolicyImpl.PROHIBIT),
+
+        BIMORPHIC(PolicyImpl.PROHIBIT, PolicyImpl.REQUIRE),
+
+        MEGAMORPHIC(PolicyImpl.ALLOW, PolicyImpl.PROHIBIT, PolicyImpl.REQUIRE,
+                path -> path.length() < 64, path -> !path.isEmpty());
+
+        private final Policy[] policies;
+
+        private Morphism(final Policy... policies) {
+            this.policies = policies;
+        }
+
+    }
+
+    @Param({ "MONOMORPHIC", "BIMORPHIC", "MEGAMORPHIC" })
+    public Morphism morphism;
+
+    private final Policy[] policies = new Policy[OPS];
+
+    private final String[] paths = new String[OPS];
+
+    @Setup
+    public void setup() {
+        final Policy[] choices = this.morphism.policies;
+        for (int i = 0; i < OPS; ++i) {
+            this.policies[i] = choices[i % choices.length];
+            this.paths[i] = (i & 1) == 0 ? "data" : "data/";
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public int pass() {
+        int passed = 0;
+        for (int i = 0; i < OPS; ++i) {
+            if (this.policies[i].pass(this.paths[i])) {
+                ++passed;
+            }
+        }
+        return passed;
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package bench.com.msiops.jaxrs.trailingslash;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.msiops.jaxrs.trailingslash.RejectionResponse;
+
+/**
+ * Cost of producing a rejection response: a bare 404, and one with a header
+ * and a text entity, built from scratch or from a prepared
+ * {@link RejectionResponse}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class RejectionBenchmark {
+
+    private static final String TEXT = "The requested resource was not found.";
+
+    private final RejectionResponse bare = RejectionResponse.NOT_FOUND;
+
+    private final RejectionResponse full = RejectionResponse.NOT_FOUND
+            .withHeader("X-Trailing-Slash", "rejected")
+            .withEntity(TEXT, MediaType.TEXT_PLAIN_TYPE);
+
+    @Benchmark
+    public Response bareAdHoc() {
+        return Response.status(Status.NOT_FOUND).build();
+    }
+
+    @Benchmark
+    public Response barePrepared() {
+        return this.bare.response(null, null);
+    }
+
+    @Benchmark
+    public Response fullAdHoc() {
+        return Response.status(Status.NOT_FOUND)
+                .header("X-Trailing-Slash", "rejected")
+                .entity(TEXT.getBytes(StandardCharsets.UTF_8))
+                .type(MediaType.TEXT_PLAIN_TYPE).build();
+    }
+
+    @Benchmark
+    public Response fullPrepared() {
+        return this.full.response(null, null);
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package bench.com.msiops.jaxrs.trailingslash;
+
+import java.net.URI;
+
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ContainerRequest;
+
+/**
+ * Request context factory. The benchmarks use Jersey's own request context so
+ * that path decoding and the property bag cost what they cost in production.
+ */
+final class Requests {
+
+    static final URI BASE_URI = URI.create("http://localhost:8080/");
+
+    /**
+     * Create a fresh GET request context for a relative path.
+     *
+     * @param requestUri
+     *            absolute request URI.
+     *
+     * @return new request context.
+     */
+    static ContainerRequest get(final URI requestUri) {
+        return new ContainerRequest(BASE_URI, requestUri, "GET", null,
+                new MapPropertiesDelegate());
+    }
+
+    /**
+     * Resolve a relative, encoded path against the base URI.
+     *
+     * @param shape
+     *            path shape.
+     *
+     * @return absolute request URI.
+     */
+    static URI uri(final PathShape shape) {
+        return URI.create(BASE_URI.toString() + shape.encoded());
+    }
+
+    private Requests() {
+        throw new AssertionError("no instances");
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package bench.com.msiops.jaxrs.trailingslash;
+
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.msiops.jaxrs.trailingslash.StaticTrailingSlashFeature;
+
+/**
+ * <p>
+ * Application startup with the filters found by package discovery compared
+ * with the same filters registered by {@link StaticTrailingSlashFeature}. Each
+ * fork boots one application in a fresh JVM, which is the startup an
+ * instance sees when it is scaled out. Pass e.g. <code>-i 20</code> to see
+ * repeated boots in a warm JVM as well.
+ * </p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    /**
+     * How the filters are registered.
+     */
+    public enum Registration {
+        DISCOVERY {
+            @Override
+            ResourceConfig config() {
+                return new ResourceConfig(
+                        Configuration.AnnotatedResource.class)
+                        .packages("com.msiops.jaxrs.trailingslash");
+            }
+        },
+        FEATURE {
+            @Override
+            ResourceConfig config() {
+                return new ResourceConfig(
+                        Configuration.AnnotatedResource.class)
+                        .register(new StaticTrailingSlashFeature());
+            }
+        };
+
+        abstract ResourceConfig config();
+    }
+
+    @Param({ "DISCOVERY", "FEATURE" })
+    public Registration registration;
+
+    @Benchmark
+    public ApplicationHandler boot() {
+        return new ApplicationHandler(this.registration.config());
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+
+/**
+ * Policy enforcement filter template. Subclasses decide which policy applies
+ * to a request and hand it to {@link #enforce}. Calls are timed if a latency
+ * histogram is configured.
+ */
+abstract class AbstractEnforcementFilter implements ContainerRequestFilter {
+
+    /**
+     * Latency histogram, null if none is installed.
+     */
+    private final LatencyHistogram latency;
+
+    /**
+     * Decision listener, null if none is installed.
+     */
+    private final PolicyDecisionListener listener;
+
+    private final EnforcementOptions options;
+
+    private final PathEvaluation pathEvaluation;
+
+    protected AbstractEnforcementFilter(final EnforcementOptions options) {
+        this.options = Objects.requireNonNull(options);
+        this.pathEvaluation = options.pathEvaluation();
+        this.listener = options.listener();
+        this.latency = options.latencyHistogram();
+    }
+
+    @Override
+    public final void filter(final ContainerRequestContext requestContext)
+            throws IOException {
+
+        if (this.latency == null || !this.latency.sample()) {
+            decide(requestContext);
+        } else {
+            final long start = System.nanoTime();
+            try {
+                decide(requestContext);
+            } finally {
+                this.latency.record(System.nanoTime() - start);
+            }
+        }
+
+    }
+
+    /**
+     * Find the policy that applies to a request and {@link #enforce} it.
+     *
+     * @param requestContext
+     *            request.
+     */
+    protected abstract void decide(ContainerRequestContext requestContext);
+
+    /**
+     * Apply a policy to a request.
+     *
+     * @param requestContext
+     *            request.
+     *
+     * @param policy
+     *            policy to apply.
+     *
+     * @param source
+     *            where the policy came from.
+     */
+    protected final void enforce(final ContainerRequestContext requestContext,
+            final Policy policy, final PolicySource source) {
+
+        /*
+         * apply policy test to resource path.
+         */
+        final boolean passed = policy.pass(this.pathEvaluation.rightHandPath(
+                requestContext, policy));
+
+        if (this.listener != null) {
+            this.listener.onDecision(requestContext, policy, source, passed);
+        }
+
+        if (!passed) {
+            /*
+             * fail! reject request.
+             */
+            requestContext.abortWith(this.options.rejection(policy).response(
+                    requestContext, policy, this.pathEvaluation));
+        } // else request lives
+
+    }
+
+}
@@ -23,7 +23,9 @@ import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerRequestFilter;
 
 /**
- * Policy injection filter template.
+ * Policy injection filter template. Setting the property allocates a map
+ * entry on the first write to a request; {@link TrailingSlashFeature} binds
+ * policies without it.
  */
 abstract class AbstractPolicyInjectorFilter implements ContainerRequestFilter {
 
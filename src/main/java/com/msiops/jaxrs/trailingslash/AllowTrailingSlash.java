@@ -27,4 +27,17 @@ import javax.ws.rs.NameBinding;
 @Retention(RetentionPolicy.RUNTIME)
 @NameBinding
 public @interface AllowTrailingSlash {
+
+    /**
+     * HTTP methods the policy applies to, e.g. {@link javax.ws.rs.HttpMethod#GET}.
+     * Empty, the default, means all methods. On the same class or method, a
+     * policy restricted to a request's method overrides an unrestricted one.
+     * Restrictions are resolved at deployment by {@link TrailingSlashFeature}
+     * and {@link RoutePolicyIndex}; the name-bound static filters cannot honor
+     * them, and {@link StaticAnnotationCheck} refuses them at deployment.
+     *
+     * @return HTTP methods, or none for all.
+     */
+    String[] methods() default {};
+
 }
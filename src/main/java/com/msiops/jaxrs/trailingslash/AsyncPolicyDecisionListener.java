@@ -0,0 +1,336 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.ws.rs.container.ContainerRequestContext;
+
+/**
+ * <p>
+ * Decision listener that hands decisions to a
+ * {@link PolicyDecisionBatchListener} on a background thread, so that request
+ * threads do not run listener code.
+ * </p>
+ *
+ * <p>
+ * Decisions go through a bounded ring of preallocated slots. Request threads
+ * claim a slot with a compare-and-set and publish it with a volatile write;
+ * nothing is allocated and no lock is taken. A single consumer thread drains
+ * the ring in batches. When the ring is full, a decision is either dropped
+ * and counted in {@link #dropped()}, or the request thread spins until the
+ * consumer makes room, as chosen at construction.
+ * </p>
+ *
+ * <p>
+ * The consumer thread starts with the listener. {@link #close()} stops it
+ * after delivering the decisions already in the ring. Every decision is
+ * either delivered or counted as dropped, also when it races with
+ * {@link #close()}.
+ * </p>
+ */
+public final class AsyncPolicyDecisionListener implements
+PolicyDecisionListener, AutoCloseable {
+
+    /**
+     * Longest consumer sleep when the ring is empty.
+     */
+    private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS
+            .toNanos(1);
+
+    /**
+     * Tail once the consumer has stopped. No slot can be claimed at it.
+     */
+    private static final long SEALED = Long.MIN_VALUE;
+
+    private final PolicyDecisionBatchListener consumer;
+
+    private final Thread consumerThread;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final boolean dropOnFull;
+
+    private final int mask;
+
+    private volatile boolean running = true;
+
+    private final Slot[] slots;
+
+    /**
+     * Next sequence to claim.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Create listener that drops decisions when the ring is full.
+     *
+     * @param consumer
+     *            receives the decisions.
+     *
+     * @param capacity
+     *            ring capacity, rounded up to a power of two.
+     */
+    public AsyncPolicyDecisionListener(
+            final PolicyDecisionBatchListener consumer, final int capacity) {
+        this(consumer, capacity, true);
+    }
+
+    /**
+     * Create listener.
+     *
+     * @param consumer
+     *            receives the decisions.
+     *
+     * @param capacity
+     *            ring capacity, rounded up to a power of two.
+     *
+     * @param dropOnFull
+     *            true to drop decisions when the ring is full, false to make
+     *            the request thread wait for room.
+     */
+    public AsyncPolicyDecisionListener(
+            final PolicyDecisionBatchListener consumer, final int capacity,
+            final boolean dropOnFull) {
+
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity out of range");
+        }
+        this.consumer = Objects.requireNonNull(consumer);
+        this.dropOnFull = dropOnFull;
+
+        final int size = Integer.highestOneBit(capacity) == capacity ? capacity
+                : Integer.highestOneBit(capacity) << 1;
+        this.mask = size - 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; ++i) {
+            this.slots[i] = new Slot(i);
+        }
+
+        this.consumerThread = new Thread(this::consume,
+                "trailing-slash-decisions");
+        this.consumerThread.setDaemon(true);
+        this.consumerThread.start();
+
+    }
+
+    /**
+     * Stop the consumer thread once the decisions already in the ring are
+     * delivered. Decisions made afterwards are dropped. Waits for the
+     * consumer to finish; an interrupt does not cut the wait short but is
+     * kept in the thread's interrupt status.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        LockSupport.unpark(this.consumerThread);
+        boolean interrupted = false;
+        while (true) {
+            try {
+                this.consumerThread.join();
+                break;
+            } catch (final InterruptedException x) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Decisions dropped because the ring was full or the listener closed.
+     *
+     * @return count.
+     */
+    public long dropped() {
+        return this.dropped.sum();
+    }
+
+    @Override
+    public void onDecision(final ContainerRequestContext requestContext,
+            final Policy policy, final PolicySource source, final boolean passed) {
+
+        final Slot slot = claim();
+        if (slot == null) {
+            this.dropped.increment();
+            return;
+        }
+
+        slot.method = requestContext.getMethod();
+        slot.rawPath = requestContext.getUriInfo().getRequestUri()
+                .getRawPath();
+        slot.policy = policy;
+        slot.source = source;
+        slot.passed = passed;
+        slot.timestamp = System.currentTimeMillis();
+        slot.publish();
+
+    }
+
+    /**
+     * Claim the next slot.
+     *
+     * @return claimed slot, or null if the decision is to be dropped.
+     */
+    private Slot claim() {
+        while (this.running) {
+            final long seq = this.tail.get();
+            final Slot slot = this.slots[(int) seq & this.mask];
+            final long diff = slot.sequence - seq;
+            if (diff == 0) {
+                if (this.tail.compareAndSet(seq, seq + 1)) {
+                    slot.claimed = seq;
+                    return slot;
+                }
+            } else if (diff < 0) {
+                /*
+                 * full, the consumer has not released this slot yet. Also
+                 * the case once the tail is sealed.
+                 */
+                if (this.dropOnFull) {
+                    return null;
+                }
+                Thread.yield();
+            } // else another producer claimed it, retry
+        }
+        return null;
+    }
+
+    private void consume() {
+
+        long head = 0;
+        long idle = 0;
+        while (true) {
+            Slot slot = this.slots[(int) head & this.mask];
+            if (slot.sequence != head + 1) {
+                /*
+                 * stop only when no slot is claimed beyond head, and seal the
+                 * tail in the same step so that a producer that passed the
+                 * running check cannot claim one afterwards.
+                 */
+                if (!this.running && this.tail.compareAndSet(head, SEALED)) {
+                    return;
+                }
+                /*
+                 * empty. Back off up to the maximum idle time, producers do
+                 * not wake the consumer.
+                 */
+                idle = Math.min(MAX_IDLE_NANOS, Math.max(1000, idle * 2));
+                LockSupport.parkNanos(this, idle);
+                continue;
+            }
+            idle = 0;
+
+            /*
+             * drain the batch of slots published so far.
+             */
+            do {
+                final Slot next = this.slots[(int) (head + 1) & this.mask];
+                final boolean endOfBatch = next.sequence != head + 2;
+                try {
+                    this.consumer.onDecision(slot, endOfBatch);
+                } catch (final RuntimeException x) {
+                    final Thread t = Thread.currentThread();
+                    t.getUncaughtExceptionHandler().uncaughtException(t, x);
+                }
+                slot.release(this.slots.length);
+                ++head;
+                slot = next;
+            } while (slot.sequence == head + 1);
+        }
+
+    }
+
+    /**
+     * Ring slot. Fields are written by the claiming request thread and
+     * published by the volatile write of {@link #sequence}.
+     */
+    private static final class Slot implements PolicyDecision {
+
+        long claimed;
+
+        String method;
+
+        boolean passed;
+
+        Policy policy;
+
+        String rawPath;
+
+        /**
+         * Equal to the claimable sequence when free, one more than the claimed
+         * sequence when published.
+         */
+        volatile long sequence;
+
+        PolicySource source;
+
+        long timestamp;
+
+        Slot(final long sequence) {
+            this.sequence = sequence;
+        }
+
+        @Override
+        public String method() {
+            return this.method;
+        }
+
+        @Override
+        public boolean passed() {
+            return this.passed;
+        }
+
+        @Override
+        public Policy policy() {
+            return this.policy;
+        }
+
+        @Override
+        public String rawPath() {
+            return this.rawPath;
+        }
+
+        @Override
+        public PolicySource source() {
+            return this.source;
+        }
+
+        @Override
+        public long timestamp() {
+            return this.timestamp;
+        }
+
+        void publish() {
+            this.sequence = this.claimed + 1;
+        }
+
+        void release(final int size) {
+            this.method = null;
+            this.rawPath = null;
+            this.policy = null;
+            this.sequence = this.claimed + size;
+        }
+
+    }
+
+}
@@ -0,0 +1,256 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.net.URI;
+import java.util.Objects;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.Response.StatusType;
+
+/**
+ * <p>
+ * Rejection that redirects to the canonical form of the request URI instead
+ * of failing the request. For {@link PolicyImpl#REQUIRE}, the canonical form
+ * has a trailing slash appended. For {@link PolicyImpl#PROHIBIT}, trailing
+ * slashes are removed, encoded ones too unless the enforcement filter tests
+ * paths with {@link PathEvaluation#RAW_LITERAL}, where an encoded slash is
+ * path data. The query string is kept.
+ * </p>
+ *
+ * <p>
+ * The location is built from the raw request URI by string concatenation; no
+ * URI builder is involved. It is made absolute with a base, scheme and
+ * authority, that is either configured up front with {@link #withBase(URI)}
+ * or taken from the request URI.
+ * </p>
+ *
+ * <p>
+ * Other policies have no known canonical form. Requests they reject get the
+ * fallback rejection, {@link RejectionResponse#NOT_FOUND} by default.
+ * </p>
+ *
+ * <p>
+ * Redirects are as cacheable as the status makes them. Add
+ * <code>Cache-Control</code> with {@link #withCacheControl} to let a cache or
+ * CDN answer repeat requests for the wrong form.
+ * </p>
+ *
+ * <p>
+ * Use {@link #PERMANENT_REDIRECT} (308) where clients send anything but GET
+ * or HEAD. Many clients turn a POST into a GET when following a 301.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable. Each <code>with...</code> method returns a new
+ * instance.
+ * </p>
+ */
+public final class CanonicalRedirect implements Rejection {
+
+    /**
+     * Redirect with 301 (Moved Permanently).
+     */
+    public static final CanonicalRedirect MOVED_PERMANENTLY = of(Status.MOVED_PERMANENTLY
+            .getStatusCode());
+
+    /**
+     * Redirect with 308 (Permanent Redirect). The client repeats the request
+     * with the same method and entity.
+     */
+    public static final CanonicalRedirect PERMANENT_REDIRECT = of(308);
+
+    /**
+     * Create redirect with a status code.
+     *
+     * @param status
+     *            redirection (3xx) status code.
+     *
+     * @return redirect.
+     */
+    public static CanonicalRedirect of(final int status) {
+        final StatusType type = StatusTypes.of(status);
+        if (type.getFamily() != Status.Family.REDIRECTION) {
+            throw new IllegalArgumentException("not a redirection: " + status);
+        }
+        return new CanonicalRedirect(type, null, RejectionResponse.NOT_FOUND,
+                ResponseHeaders.NONE);
+    }
+
+    /**
+     * Canonical form of a raw path under {@link PolicyImpl#PROHIBIT}.
+     *
+     * @param rawPath
+     *            raw path.
+     *
+     * @param encodedSlashIsSlash
+     *            whether a trailing %2F is removed as well.
+     *
+     * @return path without trailing slashes, or "/" if nothing else is left.
+     */
+    static String stripped(final String rawPath,
+            final boolean encodedSlashIsSlash) {
+        int end = rawPath.length();
+        for (;;) {
+            if (end > 0 && rawPath.charAt(end - 1) == '/') {
+                end -= 1;
+            } else if (encodedSlashIsSlash
+                    && PathEvaluation.endsWithEncodedSlash(rawPath, end)) {
+                end -= 3;
+            } else {
+                break;
+            }
+        }
+        return end == 0 ? "/" : rawPath.substring(0, end);
+    }
+
+    private final String base;
+
+    private final Rejection fallback;
+
+    private final ResponseHeaders headers;
+
+    private final StatusType status;
+
+    private CanonicalRedirect(final StatusType status, final String base,
+            final Rejection fallback, final ResponseHeaders headers) {
+        this.status = status;
+        this.base = base;
+        this.fallback = fallback;
+        this.headers = headers;
+    }
+
+    @Override
+    public Response response(final ContainerRequestContext requestContext,
+            final Policy policy) {
+        return response(requestContext, policy, PathEvaluation.RAW);
+    }
+
+    @Override
+    public Response response(final ContainerRequestContext requestContext,
+            final Policy policy, final PathEvaluation pathEvaluation) {
+
+        if (policy != PolicyImpl.REQUIRE && policy != PolicyImpl.PROHIBIT) {
+            return this.fallback.response(requestContext, policy,
+                    pathEvaluation);
+        }
+
+        final URI requestUri = requestContext.getUriInfo().getRequestUri();
+        final String path = requestUri.getRawPath();
+        final String query = requestUri.getRawQuery();
+
+        final StringBuilder location = new StringBuilder(64 + path.length()
+                + (query == null ? 0 : query.length()));
+        if (this.base != null) {
+            location.append(this.base);
+        } else {
+            location.append(requestUri.getScheme()).append("://")
+                    .append(requestUri.getRawAuthority());
+        }
+        if (policy == PolicyImpl.REQUIRE) {
+            location.append(path).append('/');
+        } else {
+            location.append(stripped(path,
+                    pathEvaluation != PathEvaluation.RAW_LITERAL));
+        }
+        if (query != null) {
+            location.append('?').append(query);
+        }
+
+        return this.headers.addTo(Response.status(this.status))
+                .header(HttpHeaders.LOCATION, location.toString()).build();
+
+    }
+
+    /**
+     * Status code of the redirect.
+     *
+     * @return status code.
+     */
+    public int status() {
+        return this.status.getStatusCode();
+    }
+
+    /**
+     * Use a fixed base instead of the request's scheme and authority.
+     *
+     * @param base
+     *            absolute URI. Only scheme and authority are used.
+     *
+     * @return new redirect.
+     */
+    public CanonicalRedirect withBase(final URI base) {
+        if (!base.isAbsolute() || base.getRawAuthority() == null) {
+            throw new IllegalArgumentException("base must have a scheme and "
+                    + "authority: " + base);
+        }
+        return new CanonicalRedirect(this.status, base.getScheme() + "://"
+                + base.getRawAuthority(), this.fallback, this.headers);
+    }
+
+    /**
+     * Reject in a different way where no canonical form is known.
+     *
+     * @param fallback
+     *            rejection for requests rejected by policies other than
+     *            {@link PolicyImpl#REQUIRE} and {@link PolicyImpl#PROHIBIT}.
+     *
+     * @return new redirect.
+     */
+    public CanonicalRedirect withFallback(final Rejection fallback) {
+        return new CanonicalRedirect(this.status, this.base,
+                Objects.requireNonNull(fallback), this.headers);
+    }
+
+    /**
+     * Add a <code>Cache-Control</code> header to redirects, so that caches
+     * can keep them, e.g. <code>public, max-age=3600</code>. The fallback
+     * rejection is configured separately.
+     *
+     * @param cacheControl
+     *            header value.
+     *
+     * @return new redirect.
+     */
+    public CanonicalRedirect withCacheControl(final String cacheControl) {
+        return withHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+    }
+
+    /**
+     * Add a header to redirects, e.g. <code>Vary</code>. The fallback
+     * rejection is configured separately.
+     *
+     * @param name
+     *            header name.
+     *
+     * @param value
+     *            header value. A {@link javax.ws.rs.core.CacheControl} is
+     *            formatted once, here. Other values are converted to a string
+     *            by the container when the response is written, so prefer
+     *            strings.
+     *
+     * @return new redirect.
+     */
+    public CanonicalRedirect withHeader(final String name, final Object value) {
+        return new CanonicalRedirect(this.status, this.base, this.fallback,
+                this.headers.with(name, value));
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.util.Objects;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+
+/**
+ * Enforcement filter for a single resource method whose policy can be changed
+ * at runtime through a {@link PolicyControl}.
+ */
+final class ControlledEnforcementFilter extends AbstractEnforcementFilter
+implements ContainerRequestFilter {
+
+    private final PolicyControl control;
+
+    /**
+     * Policy declared by annotations, null if none.
+     */
+    private final Policy declared;
+
+    private final PolicyControl.Route route;
+
+    ControlledEnforcementFilter(final PolicyControl control,
+            final PolicyControl.Route route, final Policy declared,
+            final EnforcementOptions options) {
+        super(options);
+        this.control = Objects.requireNonNull(control);
+        this.route = Objects.requireNonNull(route);
+        this.declared = declared;
+    }
+
+    @Override
+    protected void decide(final ContainerRequestContext requestContext) {
+
+        final Policy override = this.route.override;
+        if (override != null) {
+            enforce(requestContext, override, PolicySource.OVERRIDE);
+        } else if (this.declared != null) {
+            enforce(requestContext, this.declared, PolicySource.RESOURCE);
+        } else {
+            enforce(requestContext, this.control.defaultPolicy(),
+                    PolicySource.DEFAULT);
+        }
+
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>
+ * Settings shared by the enforcement filters. Instances are immutable. Each
+ * <code>with...</code> method returns a new instance.
+ * </p>
+ *
+ * <p>
+ * Start from {@link #DEFAULTS}, which tests the decoded path, see
+ * {@link PathEvaluation#DECODED}, and rejects with a bare 404 (Not Found)
+ * response.
+ * </p>
+ */
+public final class EnforcementOptions {
+
+    public static final EnforcementOptions DEFAULTS = new EnforcementOptions(
+            PathEvaluation.DECODED, RejectionResponse.NOT_FOUND,
+            new Rejection[PolicyImpl.values().length], null, null);
+
+    private final LatencyHistogram latencyHistogram;
+
+    private final PolicyDecisionListener listener;
+
+    private final PathEvaluation pathEvaluation;
+
+    private final Rejection rejection;
+
+    /**
+     * Rejections by {@link PolicyImpl} ordinal. A null entry falls back to
+     * {@link #rejection}.
+     */
+    private final Rejection[] rejections;
+
+    private EnforcementOptions(final PathEvaluation pathEvaluation,
+            final Rejection rejection, final Rejection[] rejections,
+            final PolicyDecisionListener listener,
+            final LatencyHistogram latencyHistogram) {
+        this.pathEvaluation = pathEvaluation;
+        this.rejection = rejection;
+        this.rejections = rejections;
+        this.listener = listener;
+        this.latencyHistogram = latencyHistogram;
+    }
+
+    /**
+     * Time filter calls. Replaces any histogram set before.
+     *
+     * @param latencyHistogram
+     *            histogram that records call durations.
+     *
+     * @return new options.
+     */
+    public EnforcementOptions withLatencyHistogram(
+            final LatencyHistogram latencyHistogram) {
+        return new EnforcementOptions(this.pathEvaluation, this.rejection,
+                this.rejections, this.listener,
+                Objects.requireNonNull(latencyHistogram));
+    }
+
+    /**
+     * Report each decision to a listener. Replaces any listener set before;
+     * use {@link PolicyDecisionListener#all} to report to several.
+     *
+     * @param listener
+     *            decision listener.
+     *
+     * @return new options.
+     */
+    public EnforcementOptions withListener(
+            final PolicyDecisionListener listener) {
+        return new EnforcementOptions(this.pathEvaluation, this.rejection,
+                this.rejections, Objects.requireNonNull(listener),
+                this.latencyHistogram);
+    }
+
+    /**
+     * Obtain request paths in a specific way.
+     *
+     * @param pathEvaluation
+     *            how to obtain the path tested by the policy.
+     *
+     * @return new options.
+     */
+    public EnforcementOptions withPathEvaluation(
+            final PathEvaluation pathEvaluation) {
+        return new EnforcementOptions(Objects.requireNonNull(pathEvaluation),
+                this.rejection, this.rejections, this.listener,
+                this.latencyHistogram);
+    }
+
+    /**
+     * Reject requests in a specific way unless a rejection is configured for
+     * the rejecting policy.
+     *
+     * @param rejection
+     *            how to reject requests.
+     *
+     * @return new options.
+     */
+    public EnforcementOptions withRejection(final Rejection rejection) {
+        return new EnforcementOptions(this.pathEvaluation,
+                Objects.requireNonNull(rejection), this.rejections,
+                this.listener, this.latencyHistogram);
+    }
+
+    /**
+     * Reject requests in a specific way when rejected by a specific policy.
+     *
+     * @param policy
+     *            rejecting policy.
+     *
+     * @param rejection
+     *            how to reject requests.
+     *
+     * @return new options.
+     */
+    public EnforcementOptions withRejection(final PolicyImpl policy,
+            final Rejection rejection) {
+        final Rejection[] updated = Arrays.copyOf(this.rejections,
+                this.rejections.length);
+        updated[policy.ordinal()] = Objects.requireNonNull(rejection);
+        return new EnforcementOptions(this.pathEvaluation, this.rejection,
+                updated, this.listener, this.latencyHistogram);
+    }
+
+    /**
+     * Latency histogram.
+     *
+     * @return histogram, null if none is set.
+     */
+    LatencyHistogram latencyHistogram() {
+        return this.latencyHistogram;
+    }
+
+    /**
+     * Decision listener.
+     *
+     * @return listener, null if none is set.
+     */
+    PolicyDecisionListener listener() {
+        return this.listener;
+    }
+
+    PathEvaluation pathEvaluation() {
+        return this.pathEvaluation;
+    }
+
+    /**
+     * Rejection for a policy.
+     *
+     * @param policy
+     *            rejecting policy.
+     *
+     * @return rejection, never null.
+     */
+    Rejection rejection(final Policy policy) {
+        if (policy instanceof PolicyImpl) {
+            final Rejection r = this.rejections[((PolicyImpl) policy).ordinal()];
+            if (r != null) {
+                return r;
+            }
+        }
+        return this.rejection;
+    }
+
+}
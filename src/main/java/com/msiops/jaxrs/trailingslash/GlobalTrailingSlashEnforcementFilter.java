@@ -0,0 +1,104 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.util.Objects;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+
+/**
+ * <p>
+ * Trailing slash enforcement filter with a global policy built in. Use this
+ * filter in place of the enforcement filter plus a policy filter, e.g.
+ * {@link TrailingSlashEnforcementFilter} and {@link RequireTrailingSlashFilter}
+ * , to enforce a policy on all resources with a single filter.
+ * </p>
+ *
+ * <p>
+ * A policy injected into {@link TrailingSlashEnforcementFilter#REQUEST_KEY}
+ * by static or dynamic configuration still takes precedence over the global
+ * policy. When there is none, the only request-property access is a lookup
+ * that finds nothing.
+ * </p>
+ */
+public final class GlobalTrailingSlashEnforcementFilter extends
+AbstractEnforcementFilter implements ContainerRequestFilter {
+
+    private final Policy policy;
+
+    /**
+     * Create filter that enforces a global policy.
+     *
+     * @param policy
+     *            policy enforced where static or dynamic configuration does
+     *            not inject one.
+     */
+    public GlobalTrailingSlashEnforcementFilter(final Policy policy) {
+        this(policy, PathEvaluation.DECODED);
+    }
+
+    /**
+     * Create filter that enforces a global policy and obtains request paths in
+     * a specific way.
+     *
+     * @param policy
+     *            policy enforced where static or dynamic configuration does
+     *            not inject one.
+     *
+     * @param pathEvaluation
+     *            how to obtain the path tested by the policy.
+     */
+    public GlobalTrailingSlashEnforcementFilter(final Policy policy,
+            final PathEvaluation pathEvaluation) {
+        this(policy, EnforcementOptions.DEFAULTS
+                .withPathEvaluation(pathEvaluation));
+    }
+
+    /**
+     * Create filter that enforces a global policy with specific options.
+     *
+     * @param policy
+     *            policy enforced where static or dynamic configuration does
+     *            not inject one.
+     *
+     * @param options
+     *            enforcement options.
+     */
+    public GlobalTrailingSlashEnforcementFilter(final Policy policy,
+            final EnforcementOptions options) {
+        super(options);
+        this.policy = Objects.requireNonNull(policy);
+    }
+
+    @Override
+    protected void decide(final ContainerRequestContext requestContext) {
+
+        /*
+         * fail fast (class cast x) if a non-policy object is found.
+         */
+        final Object injected = requestContext
+                .getProperty(TrailingSlashEnforcementFilter.REQUEST_KEY);
+        if (injected != null) {
+            enforce(requestContext, (Policy) injected, PolicySource.PROPERTY);
+        } else {
+            enforce(requestContext, this.policy, PolicySource.GLOBAL);
+        }
+
+    }
+
+}
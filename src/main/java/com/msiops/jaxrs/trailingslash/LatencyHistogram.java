@@ -0,0 +1,271 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Fixed-memory, lock-free histogram of durations in nanoseconds. Install one
+ * with {@link EnforcementOptions#withLatencyHistogram} to time enforcement
+ * filter calls.
+ * </p>
+ *
+ * <p>
+ * Buckets are log-linear, in the manner of HdrHistogram: every power of two
+ * is split into 64 equal buckets, so a reported value is within 1/64 of the
+ * recorded one. Values from 0 up to about 68 seconds
+ * are kept in a single preallocated array of counts. Recording increments a
+ * count and does not allocate. Larger values are counted in the last bucket.
+ * </p>
+ *
+ * <p>
+ * A histogram can sample, i.e. time one call in <i>n</i> chosen at random.
+ * Untimed calls do not read the clock.
+ * </p>
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Bits of precision, i.e. log2 of {@link #SUB}.
+     */
+    private static final int PRECISION = 7;
+
+    /**
+     * Values below this are counted exactly.
+     */
+    private static final int SUB = 1 << PRECISION;
+
+    private static final long MAX_VALUE = (1L << 36) - 1;
+
+    private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    /**
+     * Index of the bucket counting a value.
+     *
+     * @param value
+     *            non-negative value no greater than {@link #MAX_VALUE}.
+     *
+     * @return bucket index.
+     */
+    static int index(final long value) {
+        final int msb = 63 - Long.numberOfLeadingZeros(value | (SUB - 1));
+        final int shift = msb - (PRECISION - 1);
+        return (shift << (PRECISION - 1)) + (int) (value >>> shift);
+    }
+
+    /**
+     * Greatest value counted by a bucket.
+     *
+     * @param index
+     *            bucket index.
+     *
+     * @return value.
+     */
+    static long highest(final int index) {
+        if (index < SUB) {
+            return index;
+        }
+        final int shift = (index >> (PRECISION - 1)) - 1;
+        final long mantissa = index - ((long) shift << (PRECISION - 1));
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong max = new AtomicLong();
+
+    private final int sampleInterval;
+
+    /**
+     * Create histogram that times every call.
+     */
+    public LatencyHistogram() {
+        this(1);
+    }
+
+    /**
+     * Create sampling histogram.
+     *
+     * @param sampleInterval
+     *            time one call in this many, on average.
+     *
+     * @throws IllegalArgumentException
+     *             if the interval is less than one.
+     */
+    public LatencyHistogram(final int sampleInterval) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("sample interval must be positive");
+        }
+        this.sampleInterval = sampleInterval;
+    }
+
+    /**
+     * Record a duration.
+     *
+     * @param nanos
+     *            duration in nanoseconds. Negative values are counted as
+     *            zero.
+     */
+    public void record(final long nanos) {
+        final long v = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        this.counts.incrementAndGet(index(v));
+        long m = this.max.get();
+        while (v > m && !this.max.compareAndSet(m, v)) {
+            m = this.max.get();
+        }
+    }
+
+    /**
+     * Clear all counts. Values recorded while clearing may or may not be
+     * kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; ++i) {
+            this.counts.set(i, 0);
+        }
+        this.max.set(0);
+    }
+
+    /**
+     * Decide whether to time a call.
+     *
+     * @return true to time the call.
+     */
+    boolean sample() {
+        return this.sampleInterval == 1
+                || ThreadLocalRandom.current().nextInt(this.sampleInterval) == 0;
+    }
+
+    /**
+     * Copy the current counts.
+     *
+     * @return snapshot, unaffected by later recording.
+     */
+    public Snapshot snapshot() {
+        final long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            copy[i] = this.counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total, this.max.get());
+    }
+
+    /**
+     * Point-in-time copy of a histogram. Counts are read one bucket at a time
+     * while recording continues, so a snapshot can be off by the values
+     * recorded while it was taken.
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+
+        private final long max;
+
+        private final long total;
+
+        private Snapshot(final long[] counts, final long total, final long max) {
+            this.counts = counts;
+            this.total = total;
+            this.max = max;
+        }
+
+        /**
+         * Number of recorded values.
+         *
+         * @return count.
+         */
+        public long count() {
+            return this.total;
+        }
+
+        /**
+         * Greatest recorded value.
+         *
+         * @return nanoseconds, 0 if nothing was recorded.
+         */
+        public long max() {
+            return this.max;
+        }
+
+        /**
+         * Median.
+         *
+         * @return nanoseconds.
+         */
+        public long p50() {
+            return valueAt(0.5);
+        }
+
+        /**
+         * 99th percentile.
+         *
+         * @return nanoseconds.
+         */
+        public long p99() {
+            return valueAt(0.99);
+        }
+
+        /**
+         * 99.9th percentile.
+         *
+         * @return nanoseconds.
+         */
+        public long p999() {
+            return valueAt(0.999);
+        }
+
+        /**
+         * Value at a quantile, i.e. the greatest value of the bucket holding
+         * the value of that rank, but no more than {@link #max()}.
+         *
+         * @param quantile
+         *            quantile between 0 and 1.
+         *
+         * @return nanoseconds, 0 if nothing was recorded.
+         */
+        public long valueAt(final double quantile) {
+            if (quantile < 0 || quantile > 1) {
+                throw new IllegalArgumentException("quantile out of range");
+            }
+            if (this.total == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(quantile
+                    * this.total));
+            long seen = 0;
+            for (int i = 0; i < this.counts.length; ++i) {
+                seen += this.counts[i];
+                if (seen >= rank) {
+                    return Math.min(highest(i), this.max);
+                }
+            }
+            return this.max;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + this.total + " p50=" + p50() + " p99=" + p99()
+                    + " p99.9=" + p999() + " max=" + this.max;
+        }
+
+    }
+
+}
@@ -0,0 +1,390 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.ws.rs.container.ContainerRequestContext;
+
+/**
+ * <p>
+ * Decision listener that records every rejection in a memory-mapped file.
+ * Records are written with plain memory stores into a mapped ring of
+ * fixed-size slots, so the request thread makes no system call and does not
+ * allocate. The operating system writes the pages back to the file.
+ * </p>
+ *
+ * <p>
+ * The file holds a fixed number of records. When it is full, the newest
+ * record replaces the oldest. A record holds the time, the request method,
+ * the policy and its source, and the raw request path, truncated to fit the
+ * slot. Reopening a log with the same geometry continues after its newest
+ * record. Decode a log with {@link MappedRejectionAuditLogReader}.
+ * </p>
+ *
+ * <p>
+ * A slot is written by one thread at a time, under a per-slot lock. A record
+ * is committed by a release write of its sequence number to the slot's
+ * commit word, and only then is the sequence number stored in the file, so a
+ * reader never takes a partly written record for a complete one. Use
+ * {@link #dump(Appendable)} to read a log that is being written in this JVM.
+ * If the log wraps around onto a slot that is still being written, or a
+ * record reaches its slot only after a newer one, the record is dropped and
+ * counted in {@link #dropped()}.
+ * </p>
+ */
+public final class MappedRejectionAuditLog implements PolicyDecisionListener,
+Closeable {
+
+    /*
+     * file layout: header, then slots.
+     *
+     * header: magic (int), slot size (int), slot count (int), padded to
+     * HEADER_SIZE.
+     *
+     * slot: sequence + 1 (long, 0 if empty, written last), timestamp millis
+     * (long), source ordinal (byte), method length (byte), method
+     * (METHOD_BYTES), policy length (byte), policy (POLICY_BYTES), path length
+     * before truncation (int), path (rest of slot).
+     */
+
+    public static final int DEFAULT_SLOT_SIZE = 256;
+
+    static final int HEADER_SIZE = 64;
+
+    static final int MAGIC = 0x54534c31;
+
+    static final int METHOD_BYTES = 16;
+
+    static final int METHOD_OFFSET = 18;
+
+    static final int POLICY_BYTES = 32;
+
+    static final int POLICY_OFFSET = METHOD_OFFSET + METHOD_BYTES + 1;
+
+    static final int PATH_OFFSET = POLICY_OFFSET + POLICY_BYTES + 4;
+
+    private static String name(final Policy policy) {
+        return policy instanceof Enum ? ((Enum<?>) policy).name() : policy
+                .getClass().getName();
+    }
+
+    /**
+     * Map a log file, creating it if needed.
+     *
+     * @param file
+     *            log file.
+     *
+     * @param slotCount
+     *            number of records in the file.
+     *
+     * @param slotSize
+     *            bytes per record.
+     *
+     * @return mapped file.
+     *
+     * @throws IOException
+     *             if the file cannot be mapped, or exists with a different
+     *             layout.
+     */
+    static MappedByteBuffer map(final Path file, final int slotCount,
+            final int slotSize) throws IOException {
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+            final boolean fresh = ch.size() == 0;
+            final MappedByteBuffer buffer = ch.map(
+                    FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE
+                            + (long) slotCount * slotSize);
+            if (fresh) {
+                buffer.putInt(4, slotSize);
+                buffer.putInt(8, slotCount);
+                buffer.putInt(0, MAGIC);
+            } else if (buffer.getInt(0) != MAGIC
+                    || buffer.getInt(4) != slotSize
+                    || buffer.getInt(8) != slotCount) {
+                throw new IOException("not an audit log of this layout: "
+                        + file);
+            }
+            return buffer;
+        }
+
+    }
+
+    /**
+     * Store a string into a slot field, replacing characters that are not
+     * ASCII.
+     *
+     * @return number of bytes stored.
+     */
+    private static int put(final ByteBuffer buffer, final int offset,
+            final String s, final int max) {
+        final int n = Math.min(s.length(), max);
+        for (int i = 0; i < n; ++i) {
+            final char c = s.charAt(i);
+            buffer.put(offset + i, c < 0x80 ? (byte) c : (byte) '?');
+        }
+        return n;
+    }
+
+    private final MappedByteBuffer buffer;
+
+    private volatile boolean closed;
+
+    /**
+     * Per slot, sequence number + 1 of the committed record, 0 if none.
+     */
+    private final AtomicLongArray commits;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final AtomicLong next;
+
+    private final int slotCount;
+
+    private final int slotSize;
+
+    /**
+     * Set once {@link #close()} holds every slot lock.
+     */
+    private volatile boolean sealed;
+
+    /**
+     * Per slot, 1 while a record is being written or read.
+     */
+    private final AtomicIntegerArray writing;
+
+    /**
+     * Open a log with the default slot size.
+     *
+     * @param file
+     *            log file, created if it does not exist.
+     *
+     * @param slotCount
+     *            number of records kept.
+     *
+     * @throws IOException
+     *             if the file cannot be mapped, or exists with a different
+     *             layout.
+     */
+    public MappedRejectionAuditLog(final Path file, final int slotCount)
+            throws IOException {
+        this(file, slotCount, DEFAULT_SLOT_SIZE);
+    }
+
+    /**
+     * Open a log.
+     *
+     * @param file
+     *            log file, created if it does not exist.
+     *
+     * @param slotCount
+     *            number of records kept.
+     *
+     * @param slotSize
+     *            bytes per record. Paths longer than the space left in a slot
+     *            are truncated.
+     *
+     * @throws IOException
+     *             if the file cannot be mapped, or exists with a different
+     *             layout.
+     */
+    public MappedRejectionAuditLog(final Path file, final int slotCount,
+            final int slotSize) throws IOException {
+
+        if (slotCount < 1) {
+            throw new IllegalArgumentException("slot count must be positive");
+        }
+        if (slotSize < PATH_OFFSET + 8) {
+            throw new IllegalArgumentException("slot size too small");
+        }
+        if ((long) slotCount * slotSize > Integer.MAX_VALUE - HEADER_SIZE) {
+            throw new IllegalArgumentException("log too large");
+        }
+        this.slotCount = slotCount;
+        this.slotSize = slotSize;
+        this.buffer = map(file, slotCount, slotSize);
+        this.writing = new AtomicIntegerArray(slotCount);
+        this.commits = new AtomicLongArray(slotCount);
+
+        long newest = 0;
+        for (int i = 0; i < slotCount; ++i) {
+            final long commit = this.buffer.getLong(HEADER_SIZE + i
+                    * slotSize);
+            this.commits.set(i, commit);
+            newest = Math.max(newest, commit);
+        }
+        this.next = new AtomicLong(newest);
+
+    }
+
+    /**
+     * Stop recording, wait for records being written, and flush the mapped
+     * records to the file.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        if (!this.sealed) {
+            /*
+             * take every slot lock for good: writers already in a slot
+             * finish first, later ones find the log closed.
+             */
+            for (int i = 0; i < this.slotCount; ++i) {
+                while (!this.writing.compareAndSet(i, 0, 1)) {
+                    Thread.yield();
+                }
+            }
+            this.sealed = true;
+        }
+        this.buffer.force();
+    }
+
+    /**
+     * Write the records as {@link MappedRejectionAuditLogReader} does for a
+     * file, reading them through this log so records being written are
+     * skipped rather than raced.
+     *
+     * @param out
+     *            destination of the text.
+     *
+     * @throws IOException
+     *             if the destination cannot be written.
+     */
+    public void dump(final Appendable out) throws IOException {
+        MappedRejectionAuditLogReader.dump(this.buffer, this.slotCount,
+                this.slotSize, this, out);
+    }
+
+    @Override
+    public void onDecision(final ContainerRequestContext requestContext,
+            final Policy policy, final PolicySource source, final boolean passed) {
+
+        if (passed || this.closed) {
+            return;
+        }
+
+        final long seq = this.next.getAndIncrement();
+        final int slot = (int) (seq % this.slotCount);
+
+        /*
+         * a writer of an older record may still be in this slot if the log
+         * wrapped around meanwhile. Then drop this record rather than mix
+         * the two.
+         */
+        if (!this.writing.compareAndSet(slot, 0, 1)) {
+            if (!this.closed) {
+                this.dropped.increment();
+            }
+            return;
+        }
+        try {
+            if (this.closed) {
+                return;
+            }
+            write(slot, HEADER_SIZE + slot * this.slotSize, seq, requestContext,
+                    policy, source);
+        } finally {
+            this.writing.set(slot, 0);
+        }
+
+    }
+
+    /**
+     * Records dropped because the log wrapped around onto a slot that was
+     * still being written. Zero unless the log is small for the rate of
+     * rejections.
+     *
+     * @return number of dropped records since the log was opened.
+     */
+    public long dropped() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * Commit word of a slot, read with acquire semantics.
+     */
+    long commit(final int slot) {
+        return this.commits.get(slot);
+    }
+
+    /**
+     * Lock a slot for reading.
+     *
+     * @return true if the slot may be read, false if it is being written.
+     */
+    boolean enter(final int slot) {
+        return this.sealed || this.writing.compareAndSet(slot, 0, 1);
+    }
+
+    /**
+     * Unlock a slot after {@link #enter(int)} returned true.
+     */
+    void exit(final int slot) {
+        if (!this.sealed) {
+            this.writing.set(slot, 0);
+        }
+    }
+
+    private void write(final int slot, final int base, final long seq,
+            final ContainerRequestContext requestContext, final Policy policy,
+            final PolicySource source) {
+
+        final MappedByteBuffer b = this.buffer;
+
+        /*
+         * an older writer that got here late must not replace a newer
+         * record.
+         */
+        if (this.commits.get(slot) > seq) {
+            this.dropped.increment();
+            return;
+        }
+
+        /*
+         * mark the slot as being written, then fill it and commit. Each
+         * getAndSet is a volatile read and write, so the file stores before it
+         * stay before it and those after it stay after it.
+         */
+        b.putLong(base, 0);
+        this.commits.getAndSet(slot, 0);
+        b.putLong(base + 8, System.currentTimeMillis());
+        b.put(base + 16, (byte) source.ordinal());
+        b.put(base + 17, (byte) put(b, base + METHOD_OFFSET,
+                requestContext.getMethod(), METHOD_BYTES));
+        b.put(base + POLICY_OFFSET - 1,
+                (byte) put(b, base + POLICY_OFFSET, name(policy), POLICY_BYTES));
+        final String path = requestContext.getUriInfo().getRequestUri()
+                .getRawPath();
+        b.putInt(base + PATH_OFFSET - 4, path.length());
+        put(b, base + PATH_OFFSET, path, this.slotSize - PATH_OFFSET);
+        this.commits.getAndSet(slot, seq + 1);
+        b.putLong(base, seq + 1);
+
+    }
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import static com.msiops.jaxrs.trailingslash.MappedRejectionAuditLog.*;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Decodes a {@link MappedRejectionAuditLog} file into text, oldest record
+ * first, one record per line:
+ * </p>
+ *
+ * <pre>
+ * 2014-06-01T23:30:50.123Z GET PROHIBIT PROPERTY /app/items/
+ * </pre>
+ *
+ * <p>
+ * Truncated paths end with <code>...</code>. Slots with field lengths out of
+ * range, e.g. damaged ones, and slots rewritten while being read are
+ * skipped. Run as a program with the log file as its argument to print the
+ * log. To read a log that is being written in the same JVM, use
+ * {@link MappedRejectionAuditLog#dump(Appendable)} instead.
+ * </p>
+ */
+public final class MappedRejectionAuditLogReader {
+
+    /**
+     * Write the records of a log.
+     *
+     * @param file
+     *            log file.
+     *
+     * @param out
+     *            destination of the text.
+     *
+     * @throws IOException
+     *             if the file cannot be read or is not an audit log.
+     */
+    public static void dump(final Path file, final Appendable out)
+            throws IOException {
+
+        final ByteBuffer b;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            b = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+        if (b.capacity() < HEADER_SIZE || b.getInt(0) != MAGIC) {
+            throw new IOException("not an audit log: " + file);
+        }
+        final int slotSize = b.getInt(4);
+        final int slotCount = b.getInt(8);
+        if (slotSize < PATH_OFFSET || slotCount < 0) {
+            throw new IOException("not an audit log: " + file);
+        }
+        if (b.capacity() < HEADER_SIZE + (long) slotCount * slotSize) {
+            throw new IOException("truncated audit log: " + file);
+        }
+        dump(b, slotCount, slotSize, null, out);
+
+    }
+
+    /**
+     * Write the records of a mapped log.
+     *
+     * @param live
+     *            open log that owns the buffer, or null to read the buffer
+     *            directly. An open log supplies the commit words and locks
+     *            each slot while it is read.
+     */
+    static void dump(final ByteBuffer b, final int slotCount,
+            final int slotSize, final MappedRejectionAuditLog live,
+            final Appendable out) throws IOException {
+
+        /*
+         * records are in sequence order from the slot after the newest one,
+         * wrapping around.
+         */
+        long newest = 0;
+        int start = 0;
+        for (int i = 0; i < slotCount; ++i) {
+            final long seq = live == null ? b.getLong(HEADER_SIZE + i
+                    * slotSize) : live.commit(i);
+            if (seq > newest) {
+                newest = seq;
+                start = i + 1;
+            }
+        }
+
+        final List<String> line = new ArrayList<>();
+        for (int k = 0; k < slotCount; ++k) {
+            final int slot = (start + k) % slotCount;
+            if (live == null) {
+                record(b, HEADER_SIZE + slot * slotSize, slotSize, line, out);
+            } else if (live.enter(slot)) {
+                try {
+                    if (live.commit(slot) != 0) {
+                        record(b, HEADER_SIZE + slot * slotSize, slotSize,
+                                line, out);
+                    }
+                } finally {
+                    live.exit(slot);
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Write one record, unless its slot is empty, damaged, or rewritten
+     * while being read.
+     */
+    private static void record(final ByteBuffer b, final int base,
+            final int slotSize, final List<String> line, final Appendable out)
+            throws IOException {
+
+        final PolicySource[] sources = PolicySource.values();
+        final long seq = b.getLong(base);
+        if (seq == 0) {
+            return;
+        }
+        final int source = b.get(base + 16);
+        final int methodLength = b.get(base + 17);
+        final int policyLength = b.get(base + POLICY_OFFSET - 1);
+        final int pathLength = b.getInt(base + PATH_OFFSET - 4);
+        if (methodLength < 0 || methodLength > METHOD_BYTES
+                || policyLength < 0 || policyLength > POLICY_BYTES
+                || pathLength < 0) {
+            return;
+        }
+        final int stored = Math.min(pathLength, slotSize - PATH_OFFSET);
+
+        line.clear();
+        line.add(Instant.ofEpochMilli(b.getLong(base + 8)).toString());
+        line.add(string(b, base + METHOD_OFFSET, methodLength));
+        line.add(string(b, base + POLICY_OFFSET, policyLength));
+        line.add(source >= 0 && source < sources.length ? sources[source]
+                .name() : "?");
+        line.add(string(b, base + PATH_OFFSET, stored)
+                + (stored < pathLength ? "..." : ""));
+        if (b.getLong(base) != seq) {
+            /*
+             * rewritten while being read.
+             */
+            return;
+        }
+        out.append(String.join(" ", line)).append('\n');
+
+    }
+
+    /**
+     * Print a log.
+     *
+     * @param args
+     *            path of the log file.
+     *
+     * @throws IOException
+     *             if the file cannot be read or is not an audit log.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: "
+                    + MappedRejectionAuditLogReader.class.getName()
+                    + " <log file>");
+            System.exit(2);
+        }
+        final Writer out = new OutputStreamWriter(System.out,
+                StandardCharsets.US_ASCII);
+        dump(Paths.get(args[0]), out);
+        out.flush();
+    }
+
+    private static String string(final ByteBuffer b, final int offset,
+            final int length) {
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; ++i) {
+            bytes[i] = b.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private MappedRejectionAuditLogReader() {
+        throw new AssertionError("no instances");
+    }
+
+}
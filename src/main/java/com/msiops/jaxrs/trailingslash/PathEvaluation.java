@@ -0,0 +1,172 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.UriInfo;
+
+/**
+ * <p>
+ * How the enforcement filter obtains the path handed to a {@link Policy}.
+ * </p>
+ *
+ * <p>
+ * {@link #DECODED} uses the decoded, application-relative path from
+ * {@link javax.ws.rs.core.UriInfo#getPath()}. Depending on the
+ * implementation, this decodes the path and allocates a new string for every
+ * request. The raw modes look at the undecoded request URI path instead and
+ * never copy it. Since a policy only inspects the rightmost characters of a
+ * path, the result is the same except for how an encoded slash (%2F) at the
+ * end is treated.
+ * </p>
+ *
+ * <p>
+ * The built-in policies of {@link PolicyImpl} only test the last character,
+ * for which {@link #RAW} gives the same answer as {@link #DECODED}. So under
+ * {@link #DECODED}, they are tested on the raw path, and only other policies
+ * get the decoded path.
+ * </p>
+ */
+public enum PathEvaluation {
+    /**
+     * Decoded application-relative path for custom policies, raw path for
+     * built-in ones. This is the default.
+     */
+    DECODED {
+        @Override
+        String rightHandPath(final ContainerRequestContext requestContext) {
+            return requestContext.getUriInfo().getPath();
+        }
+
+        @Override
+        String rightHandPath(final ContainerRequestContext requestContext,
+                final Policy policy) {
+            return policy instanceof PolicyImpl ? RAW
+                    .rightHandPath(requestContext) : rightHandPath(requestContext);
+        }
+    },
+    /**
+     * Raw request path. A trailing encoded slash counts as a trailing slash,
+     * which gives the same answers as {@link #DECODED}.
+     */
+    RAW {
+        @Override
+        String rightHandPath(final ContainerRequestContext requestContext) {
+            return rawRightHandPath(requestContext, true);
+        }
+    },
+    /**
+     * Raw request path. A trailing encoded slash is path data and does not
+     * count as a trailing slash.
+     */
+    RAW_LITERAL {
+        @Override
+        String rightHandPath(final ContainerRequestContext requestContext) {
+            return rawRightHandPath(requestContext, false);
+        }
+    };
+
+    /**
+     * Stand-in passed to the policy when a raw path ends in an encoded slash
+     * that is to be treated as a separator.
+     */
+    private static final String SLASH = "/";
+
+    /**
+     * Whether a raw path ends with %2F, case insensitive.
+     *
+     * @param rawPath
+     *            raw path.
+     *
+     * @return true if the last three characters are an encoded slash.
+     */
+    static boolean endsWithEncodedSlash(final String rawPath) {
+        return endsWithEncodedSlash(rawPath, rawPath.length());
+    }
+
+    /**
+     * Whether the first characters of a raw path end with %2F, case
+     * insensitive.
+     *
+     * @param rawPath
+     *            raw path.
+     *
+     * @param end
+     *            number of characters to consider.
+     *
+     * @return true if the three characters before the end are an encoded
+     *         slash.
+     */
+    static boolean endsWithEncodedSlash(final String rawPath, final int end) {
+        return end >= 3 && rawPath.charAt(end - 3) == '%'
+                && rawPath.charAt(end - 2) == '2'
+                && (rawPath.charAt(end - 1) | 0x20) == 'f';
+    }
+
+    private static String rawRightHandPath(
+            final ContainerRequestContext requestContext,
+            final boolean encodedSlashIsSlash) {
+
+        final UriInfo uriInfo = requestContext.getUriInfo();
+        final String path = uriInfo.getRequestUri().getRawPath();
+
+        /*
+         * the raw path includes the application base path. A request for the
+         * application root has an empty relative path, which has no trailing
+         * slash no matter how the base is spelled.
+         */
+        final int base = uriInfo.getBaseUri().getRawPath().length();
+        if (path.length() <= base) {
+            return "";
+        }
+
+        if (encodedSlashIsSlash && endsWithEncodedSlash(path)) {
+            return SLASH;
+        }
+
+        return path;
+    }
+
+    /**
+     * Obtain the path to test. The result is only guaranteed to agree with the
+     * request path in its rightmost characters.
+     *
+     * @param requestContext
+     *            request.
+     *
+     * @return path for a policy to test.
+     */
+    abstract String rightHandPath(ContainerRequestContext requestContext);
+
+    /**
+     * Obtain the path to test with a policy. The result is only guaranteed to
+     * agree with the request path in its rightmost characters.
+     *
+     * @param requestContext
+     *            request.
+     *
+     * @param policy
+     *            policy that will test the path.
+     *
+     * @return path for the policy to test.
+     */
+    String rightHandPath(final ContainerRequestContext requestContext,
+            final Policy policy) {
+        return rightHandPath(requestContext);
+    }
+
+}
@@ -0,0 +1,296 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * <p>
+ * Policies by request path prefix, e.g. <code>/api/v1/collections/**</code>
+ * to {@link PolicyImpl#REQUIRE} and <code>/static/**</code> to
+ * {@link PolicyImpl#ALLOW}. A rule ending with <code>/**</code> applies to
+ * its path and to every path below it. Any other rule applies to its path
+ * only. Where several rules apply, the rule for the longest path wins.
+ * </p>
+ *
+ * <p>
+ * Rules are compared with the raw request path relative to the application,
+ * segment by segment. Leading and trailing slashes are not significant, and
+ * characters outside of the URI path grammar must be written percent-encoded.
+ * </p>
+ *
+ * <p>
+ * Rules are compiled into an immutable character trie held in a few flat
+ * arrays. A lookup walks the path once, costs time proportional to the path
+ * length however many rules there are, and does not allocate.
+ * </p>
+ */
+public final class PathPrefixPolicies {
+
+    private static final String PREFIX_SUFFIX = "/**";
+
+    /**
+     * Create a rule set builder.
+     *
+     * @return new, empty builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Edge labels of all nodes, grouped by node and sorted within each group.
+     */
+    private final char[] labels;
+
+    /**
+     * Start of each node's edges in {@link #labels} and {@link #targets}. The
+     * edges of node <code>n</code> end where those of node <code>n + 1</code>
+     * start.
+     */
+    private final int[] edges;
+
+    /**
+     * Policy of a rule for the path ending at each node, or null.
+     */
+    private final Policy[] exact;
+
+    /**
+     * Policy of a prefix rule for the path ending at each node, or null.
+     */
+    private final Policy[] prefix;
+
+    /**
+     * Target node of each edge.
+     */
+    private final int[] targets;
+
+    private PathPrefixPolicies(final char[] labels, final int[] targets,
+            final int[] edges, final Policy[] exact, final Policy[] prefix) {
+        this.labels = labels;
+        this.targets = targets;
+        this.edges = edges;
+        this.exact = exact;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Find the policy for a path.
+     *
+     * @param rawPath
+     *            raw path relative to the application.
+     *
+     * @return policy of the best rule, or null if no rule applies.
+     */
+    public Policy lookup(final String rawPath) {
+        return lookup(rawPath, 0, rawPath.length());
+    }
+
+    /**
+     * Find the policy for a path region.
+     *
+     * @param rawPath
+     *            raw path.
+     *
+     * @param from
+     *            start of the region relative to the application.
+     *
+     * @param to
+     *            end of the region, exclusive.
+     *
+     * @return policy of the best rule, or null if no rule applies.
+     */
+    Policy lookup(final String rawPath, final int from, final int to) {
+
+        int i = from;
+        while (i < to && rawPath.charAt(i) == '/') {
+            ++i;
+        }
+        int end = to;
+        while (end > i && rawPath.charAt(end - 1) == '/') {
+            --end;
+        }
+
+        int node = 0;
+        Policy best = this.prefix[0];
+        while (i < end) {
+            node = child(node, rawPath.charAt(i));
+            if (node < 0) {
+                return best;
+            }
+            ++i;
+            if ((i == end || rawPath.charAt(i) == '/')
+                    && this.prefix[node] != null) {
+                best = this.prefix[node];
+            }
+        }
+        return this.exact[node] != null ? this.exact[node] : best;
+
+    }
+
+    private int child(final int node, final char c) {
+        int lo = this.edges[node];
+        int hi = this.edges[node + 1] - 1;
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            final char label = this.labels[mid];
+            if (label < c) {
+                lo = mid + 1;
+            } else if (label > c) {
+                hi = mid - 1;
+            } else {
+                return this.targets[mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Rule set builder.
+     */
+    public static final class Builder {
+
+        private final MutableNode root = new MutableNode();
+
+        private Builder() {
+        }
+
+        /**
+         * Build the rule set.
+         *
+         * @return immutable rule set.
+         */
+        public PathPrefixPolicies build() {
+
+            /*
+             * number nodes breadth first so that each node's edges are
+             * contiguous and in label order.
+             */
+            final List<MutableNode> nodes = new ArrayList<>();
+            final Queue<MutableNode> pending = new ArrayDeque<>();
+            pending.add(this.root);
+            while (!pending.isEmpty()) {
+                final MutableNode n = pending.remove();
+                n.id = nodes.size();
+                nodes.add(n);
+                pending.addAll(n.children.values());
+            }
+
+            final int count = nodes.size();
+            final char[] labels = new char[count - 1];
+            final int[] targets = new int[count - 1];
+            final int[] edges = new int[count + 1];
+            final Policy[] exact = new Policy[count];
+            final Policy[] prefix = new Policy[count];
+            int e = 0;
+            for (final MutableNode n : nodes) {
+                edges[n.id] = e;
+                exact[n.id] = n.exact;
+                prefix[n.id] = n.prefix;
+                for (final Map.Entry<Character, MutableNode> c : n.children
+                        .entrySet()) {
+                    labels[e] = c.getKey();
+                    targets[e] = c.getValue().id;
+                    ++e;
+                }
+            }
+            edges[count] = e;
+
+            return new PathPrefixPolicies(labels, targets, edges, exact,
+                    prefix);
+
+        }
+
+        /**
+         * Add a rule.
+         *
+         * @param pattern
+         *            raw path, optionally followed by <code>/**</code> to
+         *            apply to the paths below it as well.
+         *
+         * @param policy
+         *            policy of matching requests.
+         *
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException
+         *             if the pattern is malformed or a rule for the same
+         *             pattern has a different policy.
+         */
+        public Builder rule(final String pattern, final Policy policy) {
+
+            Objects.requireNonNull(policy);
+
+            final boolean isPrefix = pattern.endsWith(PREFIX_SUFFIX)
+                    || pattern.equals("**");
+            final String path = isPrefix ? pattern.substring(0,
+                    pattern.length() - 2) : pattern;
+            if (path.contains("*")) {
+                throw new IllegalArgumentException("malformed rule: "
+                        + pattern);
+            }
+
+            int from = 0;
+            int to = path.length();
+            while (from < to && path.charAt(from) == '/') {
+                ++from;
+            }
+            while (to > from && path.charAt(to - 1) == '/') {
+                --to;
+            }
+
+            MutableNode node = this.root;
+            for (int i = from; i < to; ++i) {
+                node = node.children.computeIfAbsent(path.charAt(i),
+                        k -> new MutableNode());
+            }
+
+            final Policy existing = isPrefix ? node.prefix : node.exact;
+            if (existing != null && !existing.equals(policy)) {
+                throw new IllegalArgumentException("conflicting rules: "
+                        + pattern);
+            }
+            if (isPrefix) {
+                node.prefix = policy;
+            } else {
+                node.exact = policy;
+            }
+            return this;
+
+        }
+
+    }
+
+    private static final class MutableNode {
+
+        final TreeMap<Character, MutableNode> children = new TreeMap<>();
+
+        Policy exact;
+
+        int id;
+
+        Policy prefix;
+
+    }
+
+}
@@ -0,0 +1,312 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+import javax.ws.rs.HttpMethod;
+
+/**
+ * Resolve static (annotation) policy configuration without going through the
+ * name-bound injection filters.
+ */
+final class PolicyAnnotations {
+
+    private static final PolicyImpl[] POLICIES = { PolicyImpl.ALLOW,
+            PolicyImpl.PROHIBIT, PolicyImpl.REQUIRE };
+
+    /**
+     * Policy declared directly on an element for a request method. A policy
+     * restricted to the method wins over an unrestricted one.
+     *
+     * @param element
+     *            annotated resource class or method.
+     *
+     * @param httpMethod
+     *            request method, null if unknown. Then only unrestricted
+     *            policies apply.
+     *
+     * @return declared policy or null if the element does not declare one
+     *         that applies.
+     *
+     * @throws IllegalStateException
+     *             if the element declares more than one policy for the same
+     *             method.
+     */
+    static PolicyImpl declared(final AnnotatedElement element,
+            final String httpMethod) {
+
+        final String[][] methods = {
+                methods(element.getAnnotation(AllowTrailingSlash.class)),
+                methods(element.getAnnotation(ProhibitTrailingSlash.class)),
+                methods(element.getAnnotation(RequireTrailingSlash.class)) };
+
+        PolicyImpl unrestricted = null;
+        PolicyImpl restricted = null;
+        for (int i = 0; i < methods.length; ++i) {
+            if (methods[i] == null) {
+                continue;
+            }
+            for (int j = 0; j < i; ++j) {
+                if (methods[j] != null && overlap(methods[i], methods[j])) {
+                    throw new IllegalStateException(
+                            "conflicting trailing slash policies "
+                                    + POLICIES[j] + " and " + POLICIES[i]
+                                    + " on " + element);
+                }
+            }
+            if (methods[i].length == 0) {
+                unrestricted = POLICIES[i];
+            } else if (Arrays.asList(methods[i]).contains(httpMethod)) {
+                restricted = POLICIES[i];
+            }
+        }
+        return restricted != null ? restricted : unrestricted;
+
+    }
+
+    /**
+     * Method that carries the JAX-RS annotations of a method. As JAX-RS
+     * inherits them, a method without any takes those of the method it
+     * overrides, in a superclass first and then in an interface.
+     *
+     * @param m
+     *            method.
+     *
+     * @return the method itself if it has JAX-RS annotations or none of the
+     *         methods it overrides has, otherwise the nearest overridden
+     *         method that has.
+     */
+    static Method annotated(final Method m) {
+        if (jaxrs(m)) {
+            return m;
+        }
+        final Method inherited = inherited(m, m.getDeclaringClass());
+        return inherited == null ? m : inherited;
+    }
+
+    /**
+     * Request method designated by a resource method, e.g. by
+     * {@link javax.ws.rs.GET}, directly or inherited.
+     *
+     * @param m
+     *            method.
+     *
+     * @return request method, null if the method is not a resource method.
+     */
+    static String httpMethod(final Method m) {
+        for (final Annotation a : annotated(m).getAnnotations()) {
+            final HttpMethod hm = a.annotationType().getAnnotation(
+                    HttpMethod.class);
+            if (hm != null) {
+                return hm.value();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Effective policy of a resource method. A policy declared on the method
+     * overrides one declared on the class, which overrides the default. On
+     * either, a policy restricted to the method's request method overrides
+     * an unrestricted one.
+     *
+     * @param resourceClass
+     *            resource class.
+     *
+     * @param resourceMethod
+     *            resource method.
+     *
+     * @param defaultPolicy
+     *            policy when neither declares one.
+     *
+     * @return effective policy.
+     *
+     * @throws IllegalStateException
+     *             if the method or the class declares more than one policy
+     *             for the same request method.
+     */
+    static Policy resolve(final Class<?> resourceClass,
+            final Method resourceMethod, final Policy defaultPolicy) {
+
+        final String httpMethod = httpMethod(resourceMethod);
+        final PolicyImpl onMethod = declared(resourceMethod, httpMethod);
+        if (onMethod != null) {
+            return onMethod;
+        }
+        final PolicyImpl onClass = declared(resourceClass, httpMethod);
+        return onClass != null ? onClass : defaultPolicy;
+
+    }
+
+    /**
+     * Name of a resource method, unique among the methods of its class:
+     * class name, method name, and parameter types, e.g.
+     * <code>com.example.Items#get(java.lang.String)</code>.
+     *
+     * @param resourceClass
+     *            resource class.
+     *
+     * @param resourceMethod
+     *            resource method.
+     *
+     * @return route name.
+     */
+    static String route(final Class<?> resourceClass,
+            final Method resourceMethod) {
+        final StringBuilder b = new StringBuilder(resourceClass.getName())
+                .append('#').append(resourceMethod.getName()).append('(');
+        final Class<?>[] parameters = resourceMethod.getParameterTypes();
+        for (int i = 0; i < parameters.length; ++i) {
+            if (i > 0) {
+                b.append(',');
+            }
+            b.append(parameters[i].getTypeName());
+        }
+        return b.append(')').toString();
+    }
+
+    /**
+     * Whether an element declares a policy restricted to request methods.
+     *
+     * @param element
+     *            annotated resource class or method.
+     *
+     * @param policy
+     *            policy whose annotation is examined.
+     *
+     * @return true if the element carries the annotation of the policy and
+     *         the annotation lists request methods.
+     */
+    static boolean restricted(final AnnotatedElement element,
+            final PolicyImpl policy) {
+        final String[] methods = methods(element
+                .getAnnotation(annotation(policy)));
+        return methods != null && methods.length > 0;
+    }
+
+    private static Class<? extends Annotation> annotation(
+            final PolicyImpl policy) {
+        switch (policy) {
+        case ALLOW:
+            return AllowTrailingSlash.class;
+        case PROHIBIT:
+            return ProhibitTrailingSlash.class;
+        case REQUIRE:
+            return RequireTrailingSlash.class;
+        default:
+            throw new AssertionError(policy);
+        }
+    }
+
+    /**
+     * Nearest method overridden by a method in the supertypes of a class
+     * that has JAX-RS annotations.
+     */
+    private static Method inherited(final Method m, final Class<?> c) {
+        final Class<?> superclass = c.getSuperclass();
+        if (superclass != null) {
+            final Method found = declaredOrInherited(m, superclass);
+            if (found != null) {
+                return found;
+            }
+        }
+        for (final Class<?> i : c.getInterfaces()) {
+            final Method found = declaredOrInherited(m, i);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private static Method declaredOrInherited(final Method m,
+            final Class<?> type) {
+        try {
+            final Method candidate = type.getDeclaredMethod(m.getName(),
+                    m.getParameterTypes());
+            if (!Modifier.isPrivate(candidate.getModifiers())
+                    && !Modifier.isStatic(candidate.getModifiers())
+                    && jaxrs(candidate)) {
+                return candidate;
+            }
+        } catch (final NoSuchMethodException e) {
+            // not declared here, look further up.
+        }
+        return inherited(m, type);
+    }
+
+    /**
+     * Whether a method has JAX-RS annotations, on itself or its parameters.
+     */
+    private static boolean jaxrs(final Method m) {
+        for (final Annotation a : m.getAnnotations()) {
+            if (jaxrs(a)) {
+                return true;
+            }
+        }
+        for (final Annotation[] parameter : m.getParameterAnnotations()) {
+            for (final Annotation a : parameter) {
+                if (jaxrs(a)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean jaxrs(final Annotation a) {
+        return a.annotationType().getName().startsWith("javax.ws.rs.")
+                || a.annotationType().isAnnotationPresent(HttpMethod.class);
+    }
+
+    private static String[] methods(final Annotation a) {
+        if (a instanceof AllowTrailingSlash) {
+            return ((AllowTrailingSlash) a).methods();
+        } else if (a instanceof ProhibitTrailingSlash) {
+            return ((ProhibitTrailingSlash) a).methods();
+        } else if (a instanceof RequireTrailingSlash) {
+            return ((RequireTrailingSlash) a).methods();
+        }
+        return null;
+    }
+
+    /**
+     * Whether two policies apply to a common method. An unrestricted policy
+     * only overlaps with another unrestricted one.
+     */
+    private static boolean overlap(final String[] a, final String[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return a.length == b.length;
+        }
+        for (final String m : a) {
+            if (Arrays.asList(b).contains(m)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private PolicyAnnotations() {
+        throw new AssertionError("no instances");
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * <p>
+ * Runtime control of policy, for use when a policy turns out to be wrong and
+ * a restart is not an option. The control holds a default policy that takes
+ * the place of {@link TrailingSlashEnforcementFilter#DEFAULT_POLICY}, and a
+ * policy override for each resource method. Change them through the
+ * management interface after {@link #register(String)}.
+ * </p>
+ *
+ * <p>
+ * Pass the control to {@link TrailingSlashFeature} to make its resource
+ * methods controllable, and to {@link TrailingSlashEnforcementFilter} to
+ * control its default policy. Each resource method holds its own override in
+ * a volatile field, so a request reads its override, and where there is none
+ * the default, with a plain volatile load however many routes there are.
+ * </p>
+ */
+public final class PolicyControl implements PolicyControlMXBean {
+
+    private static PolicyImpl policy(final String name) {
+        try {
+            return PolicyImpl.valueOf(Objects.requireNonNull(name));
+        } catch (final IllegalArgumentException x) {
+            throw new IllegalArgumentException("unknown policy: " + name, x);
+        }
+    }
+
+    private volatile Policy defaultPolicy;
+
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Create control.
+     *
+     * @param defaultPolicy
+     *            initial default policy.
+     */
+    public PolicyControl(final Policy defaultPolicy) {
+        this.defaultPolicy = Objects.requireNonNull(defaultPolicy);
+    }
+
+    @Override
+    public void clearOverride(final String route) {
+        route(route).override = null;
+    }
+
+    @Override
+    public void clearOverrides() {
+        for (final Route r : this.routes.values()) {
+            r.override = null;
+        }
+    }
+
+    /**
+     * Current default policy.
+     *
+     * @return policy.
+     */
+    public Policy defaultPolicy() {
+        return this.defaultPolicy;
+    }
+
+    @Override
+    public String getDefaultPolicy() {
+        return String.valueOf(this.defaultPolicy);
+    }
+
+    @Override
+    public Map<String, String> getOverrides() {
+        final Map<String, String> overrides = new TreeMap<>();
+        for (final Route r : this.routes.values()) {
+            final Policy p = r.override;
+            if (p != null) {
+                overrides.put(r.name, p.toString());
+            }
+        }
+        return overrides;
+    }
+
+    @Override
+    public List<String> getRoutes() {
+        final List<String> names = new ArrayList<>(this.routes.keySet());
+        names.sort(null);
+        return names;
+    }
+
+    /**
+     * Register with the platform MBean server.
+     *
+     * @param name
+     *            value of the <code>name</code> key of the object name, to
+     *            tell several controls apart.
+     *
+     * @return object name under which the control is registered.
+     *
+     * @throws JMException
+     *             if registration fails, e.g. because the name is taken.
+     */
+    public ObjectName register(final String name) throws JMException {
+        final ObjectName objectName = new ObjectName(getClass().getPackage()
+                .getName()
+                + ":type="
+                + getClass().getSimpleName()
+                + ",name="
+                + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                objectName);
+        return objectName;
+    }
+
+    /**
+     * Change the default policy.
+     *
+     * @param policy
+     *            new default policy.
+     */
+    public void setDefaultPolicy(final Policy policy) {
+        this.defaultPolicy = Objects.requireNonNull(policy);
+    }
+
+    @Override
+    public void setDefaultPolicy(final String policy) {
+        setDefaultPolicy(policy(policy));
+    }
+
+    @Override
+    public void setOverride(final String route, final String policy) {
+        final PolicyImpl p = policy(policy);
+        route(route).override = p;
+    }
+
+    /**
+     * Controllable route, created on first use.
+     *
+     * @param name
+     *            route name.
+     *
+     * @return route.
+     */
+    Route controlled(final String name) {
+        return this.routes.computeIfAbsent(name, Route::new);
+    }
+
+    private Route route(final String name) {
+        final Route r = this.routes.get(Objects.requireNonNull(name));
+        if (r == null) {
+            throw new IllegalArgumentException("unknown route: " + name);
+        }
+        return r;
+    }
+
+    /**
+     * Override slot of one resource method.
+     */
+    static final class Route {
+
+        final String name;
+
+        volatile Policy override;
+
+        Route(final String name) {
+            this.name = name;
+        }
+
+    }
+
+}
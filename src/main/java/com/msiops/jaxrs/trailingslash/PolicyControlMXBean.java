@@ -0,0 +1,91 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Management interface of {@link PolicyControl}. Policies are given by
+ * {@link PolicyImpl} name, routes as <i>class name</i>#<i>method
+ * name</i>(<i>parameter types</i>).
+ */
+public interface PolicyControlMXBean {
+
+    /**
+     * Remove all overrides.
+     */
+    public abstract void clearOverrides();
+
+    /**
+     * Remove the override of a route.
+     *
+     * @param route
+     *            route name.
+     *
+     * @throws IllegalArgumentException
+     *             if the route is not known.
+     */
+    public abstract void clearOverride(String route);
+
+    /**
+     * Policy applied where nothing more specific applies.
+     *
+     * @return policy name.
+     */
+    public abstract String getDefaultPolicy();
+
+    /**
+     * Current overrides.
+     *
+     * @return policy names by route name.
+     */
+    public abstract Map<String, String> getOverrides();
+
+    /**
+     * Routes that can be overridden.
+     *
+     * @return route names, sorted.
+     */
+    public abstract List<String> getRoutes();
+
+    /**
+     * Change the default policy.
+     *
+     * @param policy
+     *            policy name.
+     *
+     * @throws IllegalArgumentException
+     *             if the policy name is not known.
+     */
+    public abstract void setDefaultPolicy(String policy);
+
+    /**
+     * Override the policy of a route, whatever its annotations say.
+     *
+     * @param route
+     *            route name.
+     *
+     * @param policy
+     *            policy name.
+     *
+     * @throws IllegalArgumentException
+     *             if the route or the policy name is not known.
+     */
+    public abstract void setOverride(String route, String policy);
+
+}
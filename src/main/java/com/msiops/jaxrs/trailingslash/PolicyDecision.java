@@ -0,0 +1,66 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+/**
+ * Record of a policy decision, detached from the request it was made for.
+ */
+public interface PolicyDecision {
+
+    /**
+     * HTTP method of the request.
+     *
+     * @return method.
+     */
+    public abstract String method();
+
+    /**
+     * Outcome.
+     *
+     * @return true if the request passed, false if it was rejected.
+     */
+    public abstract boolean passed();
+
+    /**
+     * Applied policy.
+     *
+     * @return policy.
+     */
+    public abstract Policy policy();
+
+    /**
+     * Raw path of the request URI.
+     *
+     * @return path.
+     */
+    public abstract String rawPath();
+
+    /**
+     * Where the policy came from.
+     *
+     * @return source.
+     */
+    public abstract PolicySource source();
+
+    /**
+     * Time of the decision.
+     *
+     * @return milliseconds since the epoch.
+     */
+    public abstract long timestamp();
+
+}
@@ -0,0 +1,38 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+/**
+ * Receives decisions from an {@link AsyncPolicyDecisionListener} on its
+ * consumer thread, in batches.
+ */
+public interface PolicyDecisionBatchListener {
+
+    /**
+     * Handle a decision. The decision object is reused once this method
+     * returns, so copy whatever must be kept.
+     *
+     * @param decision
+     *            decision.
+     *
+     * @param endOfBatch
+     *            true if this is the last decision available for now, e.g. a
+     *            good time to flush.
+     */
+    public abstract void onDecision(PolicyDecision decision, boolean endOfBatch);
+
+}
@@ -0,0 +1,214 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.ws.rs.container.ContainerRequestContext;
+
+/**
+ * <p>
+ * Decision listener that counts passed and rejected requests by policy.
+ * Install it with {@link EnforcementOptions#withListener} and expose it with
+ * {@link #register(String)}.
+ * </p>
+ *
+ * <p>
+ * Each count is striped over a power of two of cells, about one per
+ * processor, and a request thread increments the cell picked by its thread
+ * id. All cells live in one array, each on its own pair of cache lines, so
+ * neither the cells of one count nor those of different counts, e.g. passed
+ * and rejected under the same policy, share a line. Reading a count sums its
+ * cells and is meant for monitoring, not for the request path.
+ * </p>
+ */
+public final class PolicyDecisionCounters implements PolicyDecisionListener,
+PolicyDecisionCountersMXBean {
+
+    /**
+     * Key of the counts of policies other than {@link PolicyImpl}.
+     */
+    public static final String OTHER = "OTHER";
+
+    /**
+     * Array elements per cell: two 64-byte cache lines, since processors
+     * commonly fetch lines in adjacent pairs.
+     */
+    private static final int PAD = 16;
+
+    private static final PolicyImpl[] POLICIES = PolicyImpl.values();
+
+    private static final int COUNTS = POLICIES.length + 1;
+
+    private static final int STRIPES = Math.min(64, Integer.highestOneBit(Math
+            .max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)));
+
+    /**
+     * Array index of a cell. The first line pair is left empty so that no
+     * cell shares a line with the array header.
+     *
+     * @param count
+     *            passed count index, or rejected count index plus
+     *            {@link #COUNTS}.
+     *
+     * @param stripe
+     *            stripe.
+     *
+     * @return array index.
+     */
+    private static int cell(final int count, final int stripe) {
+        return (count * STRIPES + stripe + 1) * PAD;
+    }
+
+    private static int index(final Policy policy) {
+        return policy instanceof PolicyImpl ? ((PolicyImpl) policy).ordinal()
+                : POLICIES.length;
+    }
+
+    /**
+     * Cell of the calling thread.
+     */
+    private static int stripe() {
+        final long id = Thread.currentThread().getId();
+        return ((int) (id ^ id >>> 32) * 0x9e3779b9 >>> 16) & (STRIPES - 1);
+    }
+
+    /**
+     * Passed counts by {@link PolicyImpl} ordinal, other policies last, then
+     * rejected counts in the same order. Striped and padded, see
+     * {@link #cell(int, int)}.
+     */
+    private final AtomicLongArray cells = new AtomicLongArray(
+            (2 * COUNTS * STRIPES + 1) * PAD);
+
+    private long sum(final int count) {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; ++i) {
+            sum += this.cells.get(cell(count, i));
+        }
+        return sum;
+    }
+
+    private Map<String, Long> snapshot(final int offset) {
+        final Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < POLICIES.length; ++i) {
+            counts.put(POLICIES[i].name(), sum(offset + i));
+        }
+        counts.put(OTHER, sum(offset + POLICIES.length));
+        return counts;
+    }
+
+    private long total(final int offset) {
+        long total = 0;
+        for (int i = 0; i < COUNTS; ++i) {
+            total += sum(offset + i);
+        }
+        return total;
+    }
+
+    @Override
+    public Map<String, Long> getPassed() {
+        return snapshot(0);
+    }
+
+    @Override
+    public Map<String, Long> getRejected() {
+        return snapshot(COUNTS);
+    }
+
+    @Override
+    public long getTotalPassed() {
+        return total(0);
+    }
+
+    @Override
+    public long getTotalRejected() {
+        return total(COUNTS);
+    }
+
+    @Override
+    public void onDecision(final ContainerRequestContext requestContext,
+            final Policy policy, final PolicySource source, final boolean passed) {
+        this.cells.getAndIncrement(cell(
+                (passed ? 0 : COUNTS) + index(policy), stripe()));
+    }
+
+    /**
+     * Passed requests under a policy.
+     *
+     * @param policy
+     *            policy. Policies other than {@link PolicyImpl} share a
+     *            count.
+     *
+     * @return count.
+     */
+    public long passed(final Policy policy) {
+        return sum(index(policy));
+    }
+
+    /**
+     * Register with the platform MBean server.
+     *
+     * @param name
+     *            value of the <code>name</code> key of the object name, to
+     *            tell several counters apart.
+     *
+     * @return object name under which the counters are registered.
+     *
+     * @throws JMException
+     *             if registration fails, e.g. because the name is taken.
+     */
+    public ObjectName register(final String name) throws JMException {
+        final ObjectName objectName = new ObjectName(getClass().getPackage()
+                .getName()
+                + ":type="
+                + getClass().getSimpleName()
+                + ",name="
+                + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                objectName);
+        return objectName;
+    }
+
+    /**
+     * Rejected requests under a policy.
+     *
+     * @param policy
+     *            policy. Policies other than {@link PolicyImpl} share a
+     *            count.
+     *
+     * @return count.
+     */
+    public long rejected(final Policy policy) {
+        return sum(COUNTS + index(policy));
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < 2 * COUNTS; ++i) {
+            for (int j = 0; j < STRIPES; ++j) {
+                this.cells.set(cell(i, j), 0);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link PolicyDecisionCounters}. Counts are keyed by
+ * {@link PolicyImpl} name, plus {@link PolicyDecisionCounters#OTHER} for
+ * custom policies.
+ */
+public interface PolicyDecisionCountersMXBean {
+
+    /**
+     * Passed requests by policy.
+     *
+     * @return counts.
+     */
+    public abstract Map<String, Long> getPassed();
+
+    /**
+     * Rejected requests by policy.
+     *
+     * @return counts.
+     */
+    public abstract Map<String, Long> getRejected();
+
+    /**
+     * Passed requests under any policy.
+     *
+     * @return count.
+     */
+    public abstract long getTotalPassed();
+
+    /**
+     * Rejected requests under any policy.
+     *
+     * @return count.
+     */
+    public abstract long getTotalRejected();
+
+    /**
+     * Set all counts to zero. Decisions made while resetting may or may not be
+     * counted.
+     */
+    public abstract void reset();
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.util.Objects;
+
+import javax.ws.rs.container.ContainerRequestContext;
+
+/**
+ * <p>
+ * Receives the outcome of each policy test made by an enforcement filter.
+ * Install a listener with {@link EnforcementOptions#withListener}.
+ * </p>
+ *
+ * <p>
+ * Listeners are called on the request thread, from every request thread at
+ * once, before a rejected request is aborted. They should be fast and must
+ * not throw.
+ * </p>
+ *
+ * <p>
+ * Options hold a single listener. Combine several with {@link #all}.
+ * </p>
+ */
+public interface PolicyDecisionListener {
+
+    /**
+     * Listener that hands each decision to several listeners, in order.
+     *
+     * @param listeners
+     *            listeners to call.
+     *
+     * @return combined listener, or the listener itself if there is only
+     *         one.
+     */
+    public static PolicyDecisionListener all(
+            final PolicyDecisionListener... listeners) {
+        final PolicyDecisionListener[] all = listeners.clone();
+        for (final PolicyDecisionListener l : all) {
+            Objects.requireNonNull(l);
+        }
+        if (all.length == 1) {
+            return all[0];
+        }
+        return (requestContext, policy, source, passed) -> {
+            for (final PolicyDecisionListener l : all) {
+                l.onDecision(requestContext, policy, source, passed);
+            }
+        };
+    }
+
+    /**
+     * Handle a decision.
+     *
+     * @param requestContext
+     *            tested request.
+     *
+     * @param policy
+     *            applied policy.
+     *
+     * @param source
+     *            where the policy came from.
+     *
+     * @param passed
+     *            true if the request passed, false if it is rejected.
+     */
+    public abstract void onDecision(ContainerRequestContext requestContext,
+            Policy policy, PolicySource source, boolean passed);
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+/**
+ * Where the policy applied to a request came from.
+ */
+public enum PolicySource {
+
+    /**
+     * The enforcing filter's default policy, because no other source
+     * provided one.
+     */
+    DEFAULT,
+
+    /**
+     * Policy injected into
+     * {@link TrailingSlashEnforcementFilter#REQUEST_KEY} by static or dynamic
+     * configuration.
+     */
+    PROPERTY,
+
+    /**
+     * Policy resolved for the resource method at deployment, e.g. by
+     * {@link TrailingSlashFeature}.
+     */
+    RESOURCE,
+
+    /**
+     * Global policy built into {@link GlobalTrailingSlashEnforcementFilter}.
+     */
+    GLOBAL,
+
+    /**
+     * {@link PathPrefixPolicies} rule.
+     */
+    PREFIX,
+
+    /**
+     * {@link RoutePolicyIndex} entry, looked up before resource matching.
+     */
+    ROUTE,
+
+    /**
+     * Runtime override of a resource method's policy through a
+     * {@link PolicyControl}.
+     */
+    OVERRIDE
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.util.Objects;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.core.UriInfo;
+
+/**
+ * <p>
+ * Pre-matching enforcement filter. Before resource matching, the policy of the
+ * resource method the request would match is looked up in a
+ * {@link RoutePolicyIndex} and enforced, so a rejected request does not pay
+ * for routing.
+ * </p>
+ *
+ * <p>
+ * Requests for which the index knows no policy pass untested. Combine this filter with
+ * post-matching enforcement, e.g. {@link TrailingSlashFeature}, to enforce
+ * policy on those.
+ * </p>
+ */
+@PreMatching
+public final class PreMatchingEnforcementFilter extends
+AbstractEnforcementFilter implements ContainerRequestFilter {
+
+    private final RoutePolicyIndex index;
+
+    /**
+     * Create filter that enforces indexed policies.
+     *
+     * @param index
+     *            policies of the application's resource methods.
+     */
+    public PreMatchingEnforcementFilter(final RoutePolicyIndex index) {
+        this(index, EnforcementOptions.DEFAULTS);
+    }
+
+    /**
+     * Create filter that enforces indexed policies with specific options.
+     *
+     * @param index
+     *            policies of the application's resource methods.
+     *
+     * @param options
+     *            enforcement options.
+     */
+    public PreMatchingEnforcementFilter(final RoutePolicyIndex index,
+            final EnforcementOptions options) {
+        super(options);
+        this.index = Objects.requireNonNull(index);
+    }
+
+    @Override
+    protected void decide(final ContainerRequestContext requestContext) {
+
+        final UriInfo uriInfo = requestContext.getUriInfo();
+        final String path = uriInfo.getRequestUri().getRawPath();
+        final int from = uriInfo.getBaseUri().getRawPath().length();
+
+        int to = path.length();
+        while (to > from && path.charAt(to - 1) == '/') {
+            --to;
+        }
+
+        final Policy policy = to > from ? this.index.lookup(
+                requestContext.getMethod(), path, from, to) : null;
+
+        /*
+         * unknown routes are left to post-matching enforcement.
+         */
+        if (policy != null) {
+            enforce(requestContext, policy, PolicySource.ROUTE);
+        }
+
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.Response;
+
+/**
+ * Produces the response with which a request rejected by a policy is aborted.
+ */
+public interface Rejection {
+
+    /**
+     * Create abort response.
+     *
+     * @param requestContext
+     *            rejected request.
+     *
+     * @param policy
+     *            policy that rejected the request.
+     *
+     * @return response to abort with, never null.
+     */
+    public abstract Response response(ContainerRequestContext requestContext,
+            Policy policy);
+
+    /**
+     * Create abort response for a request whose path was tested in a known
+     * way. Implement this where the response depends on the path, e.g. on
+     * whether an encoded slash counted as a slash. By default, the path
+     * evaluation is ignored.
+     *
+     * @param requestContext
+     *            rejected request.
+     *
+     * @param policy
+     *            policy that rejected the request.
+     *
+     * @param pathEvaluation
+     *            how the enforcement filter obtained the tested path.
+     *
+     * @return response to abort with, never null.
+     */
+    public default Response response(
+            final ContainerRequestContext requestContext, final Policy policy,
+            final PathEvaluation pathEvaluation) {
+        return response(requestContext, policy);
+    }
+
+}
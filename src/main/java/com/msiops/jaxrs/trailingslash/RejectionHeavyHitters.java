@@ -0,0 +1,370 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import javax.ws.rs.container.ContainerRequestContext;
+
+/**
+ * <p>
+ * Decision listener that tracks the most frequently rejected keys, e.g. raw
+ * paths or client addresses, in constant memory.
+ * </p>
+ *
+ * <p>
+ * Each rejection increments a count-min sketch of atomic counters. The
+ * sketch estimates how often a key was rejected: never less than the true
+ * count, and more only by collisions with other keys. Keys are hashed over
+ * their characters with a seed chosen per tracker, so keys crafted to share a
+ * {@link String#hashCode()} do not collide in the sketch. Keys whose estimate
+ * beats the least of the current top <i>k</i> enter a small heap. The heap is
+ * guarded by a lock that request threads only try, so under contention an
+ * update of the heap, but never of the sketch, can be skipped. Counts in the
+ * heap can therefore lag, and {@link #top()} reads the sketch again for the
+ * counts it reports. Memory depends only on the sketch size and <i>k</i>, not
+ * on how many distinct keys come in.
+ * </p>
+ */
+public final class RejectionHeavyHitters implements PolicyDecisionListener {
+
+    private static final int DEPTH = 4;
+
+    /**
+     * Track rejected raw request paths.
+     *
+     * @param k
+     *            number of top paths kept.
+     *
+     * @return tracker.
+     */
+    public static RejectionHeavyHitters byPath(final int k) {
+        return new RejectionHeavyHitters(k, 1 << 14, ctx -> ctx.getUriInfo()
+                .getRequestUri().getRawPath());
+    }
+
+    /**
+     * Track a request header of rejected requests, e.g. a forwarded client
+     * address. Requests without the header are not tracked.
+     *
+     * @param name
+     *            header name.
+     *
+     * @param k
+     *            number of top values kept.
+     *
+     * @return tracker.
+     */
+    public static RejectionHeavyHitters byHeader(final String name,
+            final int k) {
+        Objects.requireNonNull(name);
+        return new RejectionHeavyHitters(k, 1 << 14,
+                ctx -> ctx.getHeaderString(name));
+    }
+
+    /**
+     * Seeded 64 bit hash of the characters of a key.
+     */
+    private static long hash(final String k, final long seed) {
+        long h = seed;
+        for (int i = 0; i < k.length(); ++i) {
+            h = (h ^ k.charAt(i)) * 0x9e3779b97f4a7c15L;
+            h ^= h >>> 32;
+        }
+        h ^= k.length();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ h >>> 33;
+    }
+
+    /**
+     * Heap of top keys, ordered by estimate, least first.
+     */
+    private final long[] counts;
+
+    private final Function<ContainerRequestContext, String> key;
+
+    private final String[] keys;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final int mask;
+
+    private final long seed = ThreadLocalRandom.current().nextLong();
+
+    private int size;
+
+    private final AtomicLongArray sketch;
+
+    /**
+     * Least estimate in a full heap, 0 while the heap has room.
+     */
+    private volatile long threshold;
+
+    /**
+     * Create tracker.
+     *
+     * @param k
+     *            number of top keys kept.
+     *
+     * @param width
+     *            counters per sketch row, rounded up to a power of two. Wider
+     *            rows make estimates more accurate.
+     *
+     * @param key
+     *            extracts the tracked key from a rejected request, or null to
+     *            skip it.
+     */
+    public RejectionHeavyHitters(final int k, final int width,
+            final Function<ContainerRequestContext, String> key) {
+
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        if (width < 1 || width > 1 << 24) {
+            throw new IllegalArgumentException("width out of range");
+        }
+        this.key = Objects.requireNonNull(key);
+        final int w = Integer.highestOneBit(width) == width ? width : Integer
+                .highestOneBit(width) << 1;
+        this.mask = w - 1;
+        this.sketch = new AtomicLongArray(DEPTH * w);
+        this.keys = new String[k];
+        this.counts = new long[k];
+
+    }
+
+    @Override
+    public void onDecision(final ContainerRequestContext requestContext,
+            final Policy policy, final PolicySource source, final boolean passed) {
+
+        if (passed) {
+            return;
+        }
+        final String k = this.key.apply(requestContext);
+        if (k == null) {
+            return;
+        }
+
+        final long h = hash(k, this.seed);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; ++row) {
+            estimate = Math.min(estimate,
+                    this.sketch.incrementAndGet(cell(h, row)));
+        }
+
+        if (estimate > this.threshold && this.lock.tryLock()) {
+            try {
+                offer(k, estimate);
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+    }
+
+    /**
+     * Forget all counts.
+     */
+    public void reset() {
+        this.lock.lock();
+        try {
+            for (int i = 0; i < this.sketch.length(); ++i) {
+                this.sketch.set(i, 0);
+            }
+            Arrays.fill(this.keys, null);
+            Arrays.fill(this.counts, 0);
+            this.size = 0;
+            this.threshold = 0;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Current top keys. The count of each is estimated from the sketch at the
+     * time of the call, and the heap is brought up to date with it.
+     *
+     * @return keys with their estimated rejection counts, most rejected
+     *         first.
+     */
+    public List<Entry> top() {
+        final List<Entry> top = new ArrayList<>();
+        this.lock.lock();
+        try {
+            for (int i = 0; i < this.size; ++i) {
+                this.counts[i] = Math.max(this.counts[i],
+                        estimate(this.keys[i]));
+            }
+            for (int i = this.size / 2 - 1; i >= 0; --i) {
+                down(i);
+            }
+            updateThreshold();
+            for (int i = 0; i < this.size; ++i) {
+                top.add(new Entry(this.keys[i], this.counts[i]));
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        top.sort((a, b) -> Long.compare(b.count, a.count));
+        return top;
+    }
+
+    /**
+     * Sketch counter of a key in a row. The rows combine the two halves of
+     * the key's hash, as h1 + row * h2, which is as good as independent
+     * hashes per row.
+     */
+    private int cell(final long hash, final int row) {
+        final int h1 = (int) hash;
+        final int h2 = (int) (hash >>> 32) | 1;
+        return row * (this.mask + 1) + (h1 + row * h2 & this.mask);
+    }
+
+    /**
+     * Current estimate of a key, without counting it.
+     */
+    private long estimate(final String k) {
+        final long h = hash(k, this.seed);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; ++row) {
+            estimate = Math.min(estimate, this.sketch.get(cell(h, row)));
+        }
+        return estimate;
+    }
+
+    private void offer(final String k, final long estimate) {
+
+        for (int i = 0; i < this.size; ++i) {
+            if (this.keys[i].equals(k)) {
+                if (estimate > this.counts[i]) {
+                    this.counts[i] = estimate;
+                    down(i);
+                }
+                updateThreshold();
+                return;
+            }
+        }
+
+        if (this.size < this.keys.length) {
+            this.keys[this.size] = k;
+            this.counts[this.size] = estimate;
+            up(this.size++);
+        } else if (estimate > this.counts[0]) {
+            this.keys[0] = k;
+            this.counts[0] = estimate;
+            down(0);
+        }
+        updateThreshold();
+
+    }
+
+    private void down(final int from) {
+        int i = from;
+        while (true) {
+            final int l = 2 * i + 1;
+            if (l >= this.size) {
+                return;
+            }
+            final int r = l + 1;
+            final int c = r < this.size && this.counts[r] < this.counts[l] ? r
+                    : l;
+            if (this.counts[i] <= this.counts[c]) {
+                return;
+            }
+            swap(i, c);
+            i = c;
+        }
+    }
+
+    private void swap(final int a, final int b) {
+        final String k = this.keys[a];
+        this.keys[a] = this.keys[b];
+        this.keys[b] = k;
+        final long c = this.counts[a];
+        this.counts[a] = this.counts[b];
+        this.counts[b] = c;
+    }
+
+    private void up(final int from) {
+        int i = from;
+        while (i > 0) {
+            final int p = (i - 1) / 2;
+            if (this.counts[p] <= this.counts[i]) {
+                return;
+            }
+            swap(i, p);
+            i = p;
+        }
+    }
+
+    private void updateThreshold() {
+        this.threshold = this.size < this.keys.length ? 0 : this.counts[0];
+    }
+
+    /**
+     * Tracked key and its estimated rejection count.
+     */
+    public static final class Entry {
+
+        private final long count;
+
+        private final String key;
+
+        Entry(final String key, final long count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        /**
+         * Estimated rejections, read from the sketch when the entry was
+         * created.
+         *
+         * @return count, never less than the number of rejections of the key
+         *         recorded before {@link RejectionHeavyHitters#top()} was
+         *         called.
+         */
+        public long count() {
+            return this.count;
+        }
+
+        /**
+         * Tracked key.
+         *
+         * @return key.
+         */
+        public String key() {
+            return this.key;
+        }
+
+        @Override
+        public String toString() {
+            return this.key + "=" + this.count;
+        }
+
+    }
+
+}
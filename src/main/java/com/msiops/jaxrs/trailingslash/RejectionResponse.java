@@ -0,0 +1,194 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.Response.StatusType;
+
+/**
+ * <p>
+ * Fixed rejection response. Status, headers, and entity are prepared once. In
+ * particular, an entity is encoded to bytes when it is configured, not when a
+ * request is rejected.
+ * </p>
+ *
+ * <p>
+ * A new {@link Response} is still built for each rejection. A response cannot
+ * be shared between requests because the container adds headers to it while
+ * writing it out.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable. Each <code>with...</code> method returns a new
+ * instance.
+ * </p>
+ */
+public final class RejectionResponse implements Rejection {
+
+    /**
+     * Bare 404 (Not Found) response. This is the default rejection.
+     */
+    public static final RejectionResponse NOT_FOUND = of(Status.NOT_FOUND);
+
+    /**
+     * Create bare rejection response with a status.
+     *
+     * @param status
+     *            response status.
+     *
+     * @return rejection response.
+     */
+    public static RejectionResponse of(final StatusType status) {
+        return new RejectionResponse(status, ResponseHeaders.NONE, null, null);
+    }
+
+    /**
+     * Create bare rejection response with a status code. Use this for codes
+     * that {@link Status} does not define.
+     *
+     * @param status
+     *            response status code.
+     *
+     * @return rejection response.
+     */
+    public static RejectionResponse of(final int status) {
+        return of(StatusTypes.of(status));
+    }
+
+    private final byte[] entity;
+
+    private final ResponseHeaders headers;
+
+    private final MediaType mediaType;
+
+    private final StatusType status;
+
+    private RejectionResponse(final StatusType status,
+            final ResponseHeaders headers, final byte[] entity,
+            final MediaType mediaType) {
+        this.status = Objects.requireNonNull(status);
+        this.headers = headers;
+        this.entity = entity;
+        this.mediaType = mediaType;
+    }
+
+    @Override
+    public Response response(final ContainerRequestContext requestContext,
+            final Policy policy) {
+        return build();
+    }
+
+    /**
+     * Status code of the response.
+     *
+     * @return status code.
+     */
+    public int status() {
+        return this.status.getStatusCode();
+    }
+
+    /**
+     * Add an entity. The entity bytes are written as they are.
+     *
+     * @param entity
+     *            entity bytes. The array is copied.
+     *
+     * @param mediaType
+     *            content type of the entity.
+     *
+     * @return new rejection response.
+     */
+    public RejectionResponse withEntity(final byte[] entity,
+            final MediaType mediaType) {
+        return new RejectionResponse(this.status, this.headers,
+                entity.clone(), Objects.requireNonNull(mediaType));
+    }
+
+    /**
+     * Add a text entity. The text is encoded once, with the charset named by
+     * the media type or UTF-8 if it does not name one.
+     *
+     * @param entity
+     *            entity text.
+     *
+     * @param mediaType
+     *            content type of the entity.
+     *
+     * @return new rejection response.
+     */
+    public RejectionResponse withEntity(final String entity,
+            final MediaType mediaType) {
+        final String charset = mediaType.getParameters().get(
+                MediaType.CHARSET_PARAMETER);
+        final Charset cs = charset == null ? StandardCharsets.UTF_8 : Charset
+                .forName(charset);
+        return new RejectionResponse(this.status, this.headers,
+                entity.getBytes(cs), mediaType);
+    }
+
+    /**
+     * Add a <code>Cache-Control</code> header, so that caches can keep the
+     * rejection, e.g. <code>public, max-age=3600</code>. Shorthand for
+     * {@link #withHeader} with {@link HttpHeaders#CACHE_CONTROL}.
+     *
+     * @param cacheControl
+     *            header value.
+     *
+     * @return new rejection response.
+     */
+    public RejectionResponse withCacheControl(final String cacheControl) {
+        return withHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+    }
+
+    /**
+     * Add a header.
+     *
+     * @param name
+     *            header name.
+     *
+     * @param value
+     *            header value. A {@link javax.ws.rs.core.CacheControl} is
+     *            formatted once, here. Other values are converted to a string
+     *            by the container when the response is written, so prefer
+     *            strings.
+     *
+     * @return new rejection response.
+     */
+    public RejectionResponse withHeader(final String name, final Object value) {
+        return new RejectionResponse(this.status,
+                this.headers.with(name, value), this.entity, this.mediaType);
+    }
+
+    private Response build() {
+        final ResponseBuilder b = this.headers.addTo(Response
+                .status(this.status));
+        if (this.entity != null) {
+            b.entity(this.entity).type(this.mediaType);
+        }
+        return b.build();
+    }
+
+}
@@ -0,0 +1,266 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * {@link PathPrefixPolicies} loaded from a file and reloaded when the file
+ * changes. Each line of the file is a rule, a pattern and a {@link PolicyImpl}
+ * name separated by <code>=</code>. Blank lines and lines starting with
+ * <code>#</code> are ignored:
+ * </p>
+ *
+ * <pre>
+ * # collections end with a slash
+ * /api/v1/collections/** = REQUIRE
+ * /static/**             = ALLOW
+ * </pre>
+ *
+ * <p>
+ * A <code>/**</code> rule applies to every path no other rule applies to, and
+ * so replaces the enforcement filter's default policy.
+ * </p>
+ *
+ * <p>
+ * Each load builds a new immutable rule set and publishes it through a single
+ * volatile reference. Request threads read that reference once per lookup,
+ * take no lock, and see either the old rules or the new ones, never a mix.
+ * If a reload fails, e.g. because the file is malformed, the previous rules
+ * stay in effect and the failure is kept in {@link #lastFailure()}.
+ * </p>
+ *
+ * <p>
+ * {@link #watch()} starts a daemon thread that reloads the file when a
+ * {@link WatchService} reports it created or modified. Replace the file
+ * atomically, e.g. by moving a new file over it. A reload triggered in the
+ * middle of an in-place write can see part of the file until the next change
+ * event.
+ * </p>
+ */
+public final class ReloadablePathPolicies implements
+Supplier<PathPrefixPolicies>, Closeable {
+
+    /**
+     * Load rules from a file.
+     *
+     * @param file
+     *            rules file.
+     *
+     * @return reloadable rules, not yet watching the file.
+     *
+     * @throws IOException
+     *             if the file cannot be read.
+     *
+     * @throws IllegalArgumentException
+     *             if the file is malformed.
+     */
+    public static ReloadablePathPolicies load(final Path file)
+            throws IOException {
+        return new ReloadablePathPolicies(file, read(file));
+    }
+
+    /**
+     * Parse rules.
+     *
+     * @param lines
+     *            lines of a rules file.
+     *
+     * @return rule set.
+     *
+     * @throws IllegalArgumentException
+     *             if a line is malformed.
+     */
+    static PathPrefixPolicies parse(final List<String> lines) {
+
+        final PathPrefixPolicies.Builder b = PathPrefixPolicies.builder();
+        int n = 0;
+        for (final String line : lines) {
+            ++n;
+            final String rule = line.trim();
+            if (rule.isEmpty() || rule.startsWith("#")) {
+                continue;
+            }
+            final int eq = rule.lastIndexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("line " + n
+                        + ": expected <pattern> = <policy>");
+            }
+            final PolicyImpl policy;
+            try {
+                policy = PolicyImpl.valueOf(rule.substring(eq + 1).trim());
+            } catch (final IllegalArgumentException x) {
+                throw new IllegalArgumentException("line " + n
+                        + ": unknown policy", x);
+            }
+            try {
+                b.rule(rule.substring(0, eq).trim(), policy);
+            } catch (final IllegalArgumentException x) {
+                throw new IllegalArgumentException("line " + n + ": "
+                        + x.getMessage(), x);
+            }
+        }
+        return b.build();
+
+    }
+
+    private static PathPrefixPolicies read(final Path file) throws IOException {
+        return parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    private volatile PathPrefixPolicies current;
+
+    private final Path file;
+
+    private volatile Exception lastFailure;
+
+    private final AtomicLong reloads = new AtomicLong();
+
+    private WatchService watcher;
+
+    private ReloadablePathPolicies(final Path file,
+            final PathPrefixPolicies initial) {
+        this.file = file.toAbsolutePath();
+        this.current = initial;
+    }
+
+    /**
+     * Stop watching the file. The current rules stay in effect.
+     *
+     * @throws IOException
+     *             if the watch service cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.watcher != null) {
+            this.watcher.close();
+            this.watcher = null;
+        }
+    }
+
+    /**
+     * Current rules.
+     *
+     * @return rule set in effect.
+     */
+    @Override
+    public PathPrefixPolicies get() {
+        return this.current;
+    }
+
+    /**
+     * Failure of the last reload.
+     *
+     * @return exception, or null if the last reload succeeded.
+     */
+    public Exception lastFailure() {
+        return this.lastFailure;
+    }
+
+    /**
+     * Reload the file now. Reloads, whether called directly or triggered by
+     * {@link #watch()}, run one at a time, so the rules of the last read of
+     * the file are the ones left in effect.
+     *
+     * @return true if the rules were replaced, false if the file could not be
+     *         loaded and the previous rules stay in effect.
+     */
+    public synchronized boolean reload() {
+        try {
+            this.current = read(this.file);
+            this.lastFailure = null;
+            this.reloads.incrementAndGet();
+            return true;
+        } catch (final IOException | RuntimeException x) {
+            this.lastFailure = x;
+            return false;
+        }
+    }
+
+    /**
+     * Successful reloads since loading.
+     *
+     * @return count.
+     */
+    public long reloads() {
+        return this.reloads.get();
+    }
+
+    /**
+     * Reload the file whenever it changes, until closed. Does nothing if
+     * already watching.
+     *
+     * @return this.
+     *
+     * @throws IOException
+     *             if the file's directory cannot be watched.
+     */
+    public synchronized ReloadablePathPolicies watch() throws IOException {
+
+        if (this.watcher != null) {
+            return this;
+        }
+
+        final Path dir = this.file.getParent();
+        final WatchService ws = dir.getFileSystem().newWatchService();
+        dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.watcher = ws;
+
+        final Thread t = new Thread(() -> watch(ws), "trailing-slash-rules");
+        t.setDaemon(true);
+        t.start();
+        return this;
+
+    }
+
+    private void watch(final WatchService ws) {
+        final Path name = this.file.getFileName();
+        try {
+            while (true) {
+                final WatchKey key = ws.take();
+                boolean changed = false;
+                for (final WatchEvent<?> e : key.pollEvents()) {
+                    changed |= e.kind() == StandardWatchEventKinds.OVERFLOW
+                            || name.equals(e.context());
+                }
+                if (changed) {
+                    reload();
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (final ClosedWatchServiceException | InterruptedException x) {
+            return;
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import javax.ws.rs.HttpMethod;
+
+/**
+ * Request methods known to JAX-RS, so that per-method tables can be arrays
+ * indexed by ordinal. Extension methods map to {@link #OTHER}.
+ */
+enum RequestMethod {
+
+    GET, HEAD, POST, PUT, DELETE, OPTIONS, OTHER;
+
+    /**
+     * Map a request method name. This is a single hash switch, not a search.
+     *
+     * @param method
+     *            request method name, case sensitive as in HTTP.
+     *
+     * @return request method, {@link #OTHER} if it is not a standard one.
+     */
+    static RequestMethod of(final String method) {
+        switch (method) {
+        case HttpMethod.GET:
+            return GET;
+        case HttpMethod.HEAD:
+            return HEAD;
+        case HttpMethod.POST:
+            return POST;
+        case HttpMethod.PUT:
+            return PUT;
+        case HttpMethod.DELETE:
+            return DELETE;
+        case HttpMethod.OPTIONS:
+            return OPTIONS;
+        default:
+            return OTHER;
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.util.Objects;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+
+/**
+ * Enforcement filter for a single resource method. The policy is resolved at
+ * deployment and does not travel through the request context.
+ */
+final class ResourceEnforcementFilter extends AbstractEnforcementFilter
+implements ContainerRequestFilter {
+
+    private final Policy policy;
+
+    ResourceEnforcementFilter(final Policy policy,
+            final EnforcementOptions options) {
+        super(options);
+        this.policy = Objects.requireNonNull(policy);
+    }
+
+    @Override
+    protected void decide(final ContainerRequestContext requestContext) {
+        enforce(requestContext, this.policy, PolicySource.RESOURCE);
+    }
+
+}
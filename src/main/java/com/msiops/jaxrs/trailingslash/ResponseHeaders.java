@@ -0,0 +1,84 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.ext.RuntimeDelegate;
+
+/**
+ * Fixed headers added to every response of a rejection. Values that need a
+ * JAX-RS header delegate, like {@link CacheControl}, are converted to strings
+ * when they are configured, so writing a response does not format them again.
+ * Immutable.
+ */
+final class ResponseHeaders {
+
+    static final ResponseHeaders NONE = new ResponseHeaders(new String[0],
+            new Object[0]);
+
+    private final String[] names;
+
+    private final Object[] values;
+
+    private ResponseHeaders(final String[] names, final Object[] values) {
+        this.names = names;
+        this.values = values;
+    }
+
+    /**
+     * Add headers to a response.
+     *
+     * @param b
+     *            response builder.
+     *
+     * @return the builder.
+     */
+    ResponseBuilder addTo(final ResponseBuilder b) {
+        for (int i = 0; i < this.names.length; ++i) {
+            b.header(this.names[i], this.values[i]);
+        }
+        return b;
+    }
+
+    /**
+     * Add a header.
+     *
+     * @param name
+     *            header name.
+     *
+     * @param value
+     *            header value. A {@link CacheControl} is formatted now; other
+     *            values are converted to a string by the container.
+     *
+     * @return new headers.
+     */
+    ResponseHeaders with(final String name, final Object value) {
+        final int n = this.names.length;
+        final String[] names = Arrays.copyOf(this.names, n + 1);
+        final Object[] values = Arrays.copyOf(this.values, n + 1);
+        names[n] = Objects.requireNonNull(name);
+        values[n] = value instanceof CacheControl ? RuntimeDelegate
+                .getInstance().createHeaderDelegate(CacheControl.class)
+                .toString((CacheControl) value) : Objects.requireNonNull(value);
+        return new ResponseHeaders(names, values);
+    }
+
+}
@@ -0,0 +1,743 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Path;
+
+/**
+ * <p>
+ * Deploy-time index of resource paths to their effective policies. Path
+ * templates are compiled into a tree of segments that is matched against the
+ * raw request path before JAX-RS resource matching happens, so that
+ * pre-matching filters know which policy the matched method will have.
+ * </p>
+ *
+ * <p>
+ * Literal segments are looked up by hash and compared in place, and a
+ * template variable without a regular expression matches any segment without
+ * further work. Only segments mixing literals and variables, or variables
+ * with a regular expression, need a regular expression match. As in JAX-RS,
+ * literal segments are preferred over variables. Matrix parameters are
+ * ignored.
+ * </p>
+ *
+ * <p>
+ * The index is an approximation of JAX-RS matching. It reports no policy if
+ * it cannot tell which method would be matched, e.g. for sub-resource
+ * locators, for a request method no route declares, or where several methods
+ * for the same path and request method resolve to different policies.
+ * Pre-matching filters leave such requests to post-matching enforcement.
+ * </p>
+ */
+public final class RoutePolicyIndex {
+
+    /**
+     * Create an index builder.
+     *
+     * @return new, empty builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Index resource classes. Each resource method's policy is resolved as by
+     * {@link TrailingSlashFeature}.
+     *
+     * @param defaultPolicy
+     *            policy of resource methods that are not annotated.
+     *
+     * @param resourceClasses
+     *            classes to index. Classes not annotated with {@link Path}
+     *            are ignored, so all application classes can be passed.
+     *
+     * @return index.
+     *
+     * @throws IllegalStateException
+     *             if a resource method or class declares more than one
+     *             policy.
+     */
+    public static RoutePolicyIndex of(final Policy defaultPolicy,
+            final Class<?>... resourceClasses) {
+        return of(defaultPolicy, Arrays.asList(resourceClasses));
+    }
+
+    /**
+     * Index resource classes. Each resource method's policy is resolved as by
+     * {@link TrailingSlashFeature}.
+     *
+     * @param defaultPolicy
+     *            policy of resource methods that are not annotated.
+     *
+     * @param resourceClasses
+     *            classes to index. Classes not annotated with {@link Path}
+     *            are ignored, so all application classes can be passed.
+     *
+     * @return index.
+     *
+     * @throws IllegalStateException
+     *             if a resource method or class declares more than one
+     *             policy.
+     */
+    public static RoutePolicyIndex of(final Policy defaultPolicy,
+            final Iterable<Class<?>> resourceClasses) {
+
+        Objects.requireNonNull(defaultPolicy);
+        final Builder b = builder();
+        for (final Class<?> c : resourceClasses) {
+            final Path classPath = c.getAnnotation(Path.class);
+            if (classPath == null) {
+                continue;
+            }
+            for (final Method m : c.getMethods()) {
+                final String httpMethod = PolicyAnnotations.httpMethod(m);
+                if (httpMethod == null) {
+                    /*
+                     * not a resource method. Sub-resource locators cannot be
+                     * indexed statically.
+                     */
+                    continue;
+                }
+                final Path methodPath = PolicyAnnotations.annotated(m)
+                        .getAnnotation(Path.class);
+                b.route(classPath.value() + "/"
+                        + (methodPath == null ? "" : methodPath.value()),
+                        httpMethod, PolicyAnnotations.resolve(c, m, defaultPolicy));
+            }
+        }
+        return b.build();
+
+    }
+
+    /**
+     * Hash of a string region, same as {@link String#hashCode()} of the
+     * corresponding substring.
+     */
+    private static int hash(final String s, final int from, final int to) {
+        int h = 0;
+        for (int i = from; i < to; ++i) {
+            h = 31 * h + s.charAt(i);
+        }
+        return h;
+    }
+
+    private static int indexOf(final String s, final char c, final int from,
+            final int to) {
+        for (int i = from; i < to; ++i) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static Routes match(final Node node, final String path,
+            final int pos, final int end) {
+
+        if (pos >= end) {
+            return node.routes;
+        }
+
+        final int segEnd = indexOf(path, '/', pos, end);
+        final int keyEnd = indexOf(path, ';', pos, segEnd);
+        final int next = segEnd < end ? segEnd + 1 : end;
+
+        /*
+         * literal segments first
+         */
+        final int[] hashes = node.literalHashes;
+        if (hashes.length != 0) {
+            final int len = keyEnd - pos;
+            final int h = hash(path, pos, keyEnd);
+            int i = Arrays.binarySearch(hashes, h);
+            if (i >= 0) {
+                while (i > 0 && hashes[i - 1] == h) {
+                    --i;
+                }
+                for (; i < hashes.length && hashes[i] == h; ++i) {
+                    final String literal = node.literals[i];
+                    if (literal.length() == len
+                            && path.regionMatches(pos, literal, 0, len)) {
+                        final Routes r = match(node.literalNodes[i], path,
+                                next, end);
+                        if (r != null) {
+                            return r;
+                        }
+                    }
+                }
+            }
+        }
+
+        /*
+         * then segments with literals and variables or constrained variables
+         */
+        for (int i = 0; i < node.patterns.length; ++i) {
+            if (node.patterns[i].matcher(path).region(pos, keyEnd).matches()) {
+                final Routes r = match(node.patternNodes[i], path, next, end);
+                if (r != null) {
+                    return r;
+                }
+            }
+        }
+
+        /*
+         * then unconstrained variables
+         */
+        if (node.any != null && keyEnd > pos) {
+            final Routes r = match(node.any, path, next, end);
+            if (r != null) {
+                return r;
+            }
+        }
+
+        /*
+         * last, variables spanning segments, which end a template
+         */
+        for (int i = 0; i < node.rest.length; ++i) {
+            if (node.rest[i].matcher(path).region(pos, end).matches()) {
+                return node.restRoutes[i];
+            }
+        }
+
+        return null;
+
+    }
+
+    private final Node root;
+
+    private RoutePolicyIndex(final Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Look up the policy for a request.
+     *
+     * @param method
+     *            request method.
+     *
+     * @param rawPath
+     *            raw, application-relative path, with or without leading or
+     *            trailing slash.
+     *
+     * @return effective policy of the matching resource method, or null if
+     *         unknown.
+     */
+    public Policy lookup(final String method, final String rawPath) {
+        int from = 0;
+        int to = rawPath.length();
+        while (from < to && rawPath.charAt(from) == '/') {
+            ++from;
+        }
+        while (to > from && rawPath.charAt(to - 1) == '/') {
+            --to;
+        }
+        return lookup(method, rawPath, from, to);
+    }
+
+    /**
+     * Look up the policy for a request path region.
+     *
+     * @param method
+     *            request method.
+     *
+     * @param rawPath
+     *            raw path.
+     *
+     * @param from
+     *            start of the application-relative path without leading
+     *            slash.
+     *
+     * @param to
+     *            end of the path without trailing slash.
+     *
+     * @return effective policy of the matching resource method, or null if
+     *         unknown.
+     */
+    Policy lookup(final String method, final String rawPath, final int from,
+            final int to) {
+        final Routes r = match(this.root, rawPath, from, to);
+        return r == null ? null : r.policy(method);
+    }
+
+    /**
+     * Index builder.
+     */
+    public static final class Builder {
+
+        private final MutableNode root = new MutableNode();
+
+        private Builder() {
+        }
+
+        /**
+         * Build the index.
+         *
+         * @return immutable index.
+         */
+        public RoutePolicyIndex build() {
+            return new RoutePolicyIndex(this.root.freeze());
+        }
+
+        /**
+         * Add a route.
+         *
+         * @param template
+         *            full path template, i.e. class and method paths joined.
+         *
+         * @param method
+         *            HTTP method.
+         *
+         * @param policy
+         *            effective policy.
+         *
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException
+         *             if the template is malformed.
+         */
+        public Builder route(final String template, final String method,
+                final Policy policy) {
+
+            Objects.requireNonNull(method);
+            Objects.requireNonNull(policy);
+
+            final List<String> segments = Templates.segments(template);
+            MutableNode node = this.root;
+            for (int i = 0; i < segments.size(); ++i) {
+                final String segment = segments.get(i);
+                final Templates.Kind kind = Templates.kind(segment);
+                switch (kind) {
+                case LITERAL:
+                    node = node.literals.computeIfAbsent(
+                            Templates.encode(segment), k -> new MutableNode());
+                    break;
+                case ANY:
+                    if (node.any == null) {
+                        node.any = new MutableNode();
+                    }
+                    node = node.any;
+                    break;
+                case PATTERN:
+                    final String regex = Templates.regex(segment);
+                    node.patternLiterals.put(regex,
+                            Templates.literalLength(segment));
+                    node = node.patterns.computeIfAbsent(regex,
+                            k -> new MutableNode());
+                    break;
+                case REST:
+                    if (i != segments.size() - 1) {
+                        /*
+                         * cannot index a template that continues after a
+                         * variable spanning segments.
+                         */
+                        return this;
+                    }
+                    node.rest.computeIfAbsent(Templates.regex(segment),
+                            k -> new MutableRoutes()).add(method, policy);
+                    return this;
+                default:
+                    throw new AssertionError(kind);
+                }
+            }
+            if (node.routes == null) {
+                node.routes = new MutableRoutes();
+            }
+            node.routes.add(method, policy);
+            return this;
+
+        }
+
+    }
+
+    private static final class MutableNode {
+
+        MutableNode any;
+
+        final Map<String, MutableNode> literals = new LinkedHashMap<>();
+
+        final Map<String, MutableNode> patterns = new LinkedHashMap<>();
+
+        /**
+         * Literal characters in each pattern's segment. As in JAX-RS, patterns
+         * with more literal characters are tried first.
+         */
+        final Map<String, Integer> patternLiterals = new LinkedHashMap<>();
+
+        final Map<String, MutableRoutes> rest = new LinkedHashMap<>();
+
+        MutableRoutes routes;
+
+        Node freeze() {
+
+            final List<String> literals = new ArrayList<>(this.literals.keySet());
+            literals.sort((a, b) -> Integer.compare(a.hashCode(), b.hashCode()));
+            final int[] hashes = new int[literals.size()];
+            final Node[] literalNodes = new Node[literals.size()];
+            for (int i = 0; i < hashes.length; ++i) {
+                hashes[i] = literals.get(i).hashCode();
+                literalNodes[i] = this.literals.get(literals.get(i)).freeze();
+            }
+
+            final List<String> regexes = new ArrayList<>(this.patterns.keySet());
+            regexes.sort((a, b) -> Integer.compare(this.patternLiterals.get(b),
+                    this.patternLiterals.get(a)));
+            final Pattern[] patterns = new Pattern[regexes.size()];
+            final Node[] patternNodes = new Node[patterns.length];
+            for (int i = 0; i < patterns.length; ++i) {
+                patterns[i] = Pattern.compile(regexes.get(i));
+                patternNodes[i] = this.patterns.get(regexes.get(i)).freeze();
+            }
+
+            final Pattern[] rest = new Pattern[this.rest.size()];
+            final Routes[] restRoutes = new Routes[rest.length];
+            int i = 0;
+            for (final Map.Entry<String, MutableRoutes> e : this.rest
+                    .entrySet()) {
+                rest[i] = Pattern.compile(e.getKey());
+                restRoutes[i] = e.getValue().freeze();
+                ++i;
+            }
+
+            return new Node(hashes, literals.toArray(new String[0]),
+                    literalNodes, patterns, patternNodes, this.any == null ? null
+                            : this.any.freeze(), rest, restRoutes,
+                    this.routes == null ? null : this.routes.freeze());
+
+        }
+
+    }
+
+    private static final class MutableRoutes {
+
+        /**
+         * Policy by method. A null value marks conflicting routes.
+         */
+        private final Map<String, Policy> policies = new LinkedHashMap<>();
+
+        void add(final String method, final Policy policy) {
+            if (this.policies.containsKey(method)
+                    && !Objects.equals(this.policies.get(method), policy)) {
+                this.policies.put(method, null);
+            } else {
+                this.policies.put(method, policy);
+            }
+        }
+
+        Routes freeze() {
+
+            final Policy[] standard = new Policy[RequestMethod.values().length];
+            final List<String> extensionMethods = new ArrayList<>();
+            final List<Policy> extensionPolicies = new ArrayList<>();
+            for (final Map.Entry<String, Policy> e : this.policies.entrySet()) {
+                final RequestMethod m = RequestMethod.of(e.getKey());
+                if (m == RequestMethod.OTHER) {
+                    extensionMethods.add(e.getKey());
+                    extensionPolicies.add(e.getValue());
+                } else {
+                    standard[m.ordinal()] = e.getValue();
+                }
+            }
+
+            /*
+             * JAX-RS answers HEAD with GET if there is no HEAD method.
+             */
+            if (!this.policies.containsKey(HttpMethod.HEAD)) {
+                final int get = RequestMethod.GET.ordinal();
+                standard[RequestMethod.HEAD.ordinal()] = standard[get];
+            }
+
+            return new Routes(standard,
+                    extensionMethods.toArray(new String[0]),
+                    extensionPolicies.toArray(new Policy[0]));
+
+        }
+
+    }
+
+    private static final class Node {
+
+        final Node any;
+
+        final int[] literalHashes;
+
+        final Node[] literalNodes;
+
+        final String[] literals;
+
+        final Node[] patternNodes;
+
+        final Pattern[] patterns;
+
+        final Pattern[] rest;
+
+        final Routes[] restRoutes;
+
+        final Routes routes;
+
+        Node(final int[] literalHashes, final String[] literals,
+                final Node[] literalNodes, final Pattern[] patterns,
+                final Node[] patternNodes, final Node any, final Pattern[] rest,
+                final Routes[] restRoutes, final Routes routes) {
+            this.literalHashes = literalHashes;
+            this.literals = literals;
+            this.literalNodes = literalNodes;
+            this.patterns = patterns;
+            this.patternNodes = patternNodes;
+            this.any = any;
+            this.rest = rest;
+            this.restRoutes = restRoutes;
+            this.routes = routes;
+        }
+
+    }
+
+    /**
+     * Policies of the resource methods of one path template.
+     */
+    private static final class Routes {
+
+        private final String[] extensionMethods;
+
+        private final Policy[] extensionPolicies;
+
+        /**
+         * Policy by {@link RequestMethod} ordinal. Null where the method has
+         * no route or conflicting routes.
+         */
+        private final Policy[] standard;
+
+        Routes(final Policy[] standard, final String[] extensionMethods,
+                final Policy[] extensionPolicies) {
+            this.standard = standard;
+            this.extensionMethods = extensionMethods;
+            this.extensionPolicies = extensionPolicies;
+        }
+
+        Policy policy(final String method) {
+            final RequestMethod m = RequestMethod.of(method);
+            if (m != RequestMethod.OTHER) {
+                return this.standard[m.ordinal()];
+            }
+            for (int i = 0; i < this.extensionMethods.length; ++i) {
+                if (this.extensionMethods[i].equals(method)) {
+                    return this.extensionPolicies[i];
+                }
+            }
+            return null;
+        }
+
+    }
+
+    /**
+     * Path template parsing.
+     */
+    private static final class Templates {
+
+        enum Kind {
+            /**
+             * Literal segment.
+             */
+            LITERAL,
+            /**
+             * Single variable without regular expression.
+             */
+            ANY,
+            /**
+             * Segment with literals and variables or a constrained variable.
+             */
+            PATTERN,
+            /**
+             * Single variable whose regular expression can span segments.
+             */
+            REST
+        }
+
+        private static final String DEFAULT_REGEX = "[^/]+";
+
+        private static final String HEX = "0123456789ABCDEF";
+
+        /**
+         * Percent-encode a literal the way it appears in a raw path.
+         */
+        static String encode(final String literal) {
+            final StringBuilder b = new StringBuilder(literal.length());
+            final byte[] bytes = literal.getBytes(StandardCharsets.UTF_8);
+            for (int i = 0; i < bytes.length; ++i) {
+                final int c = bytes[i] & 0xff;
+                if (c == '%' && i + 2 < bytes.length && isHex(bytes[i + 1])
+                        && isHex(bytes[i + 2])) {
+                    b.append('%').append(Character.toUpperCase((char) bytes[i + 1]))
+                            .append(Character.toUpperCase((char) bytes[i + 2]));
+                    i += 2;
+                } else if (isPathChar(c)) {
+                    b.append((char) c);
+                } else {
+                    b.append('%').append(HEX.charAt(c >> 4))
+                            .append(HEX.charAt(c & 0xf));
+                }
+            }
+            return b.toString();
+        }
+
+        static Kind kind(final String segment) {
+            if (segment.indexOf('{') < 0) {
+                return Kind.LITERAL;
+            }
+            if (segment.charAt(0) == '{'
+                    && closing(segment, 0) == segment.length() - 1) {
+                final String regex = variableRegex(segment, 0);
+                if (regex == null) {
+                    return Kind.ANY;
+                }
+                return Pattern.matches(regex, "a/b") ? Kind.REST
+                        : Kind.PATTERN;
+            }
+            return Kind.PATTERN;
+        }
+
+        /**
+         * Number of literal characters in a template segment.
+         */
+        static int literalLength(final String segment) {
+            int n = 0;
+            int i = 0;
+            while (i < segment.length()) {
+                if (segment.charAt(i) == '{') {
+                    i = closing(segment, i) + 1;
+                } else {
+                    ++n;
+                    ++i;
+                }
+            }
+            return n;
+        }
+
+        /**
+         * Regular expression matching a raw segment against a template
+         * segment.
+         */
+        static String regex(final String segment) {
+            final StringBuilder b = new StringBuilder();
+            int i = 0;
+            while (i < segment.length()) {
+                final int open = segment.indexOf('{', i);
+                final int literalEnd = open < 0 ? segment.length() : open;
+                if (literalEnd > i) {
+                    b.append(Pattern.quote(encode(segment.substring(i,
+                            literalEnd))));
+                }
+                if (open < 0) {
+                    break;
+                }
+                final int close = closing(segment, open);
+                final String regex = variableRegex(segment, open);
+                b.append("(?:").append(regex == null ? DEFAULT_REGEX : regex)
+                        .append(')');
+                i = close + 1;
+            }
+            return b.toString();
+        }
+
+        /**
+         * Split a template into segments, leaving slashes inside variable
+         * regular expressions alone.
+         */
+        static List<String> segments(final String template) {
+            final List<String> segments = new ArrayList<>();
+            int depth = 0;
+            int start = 0;
+            for (int i = 0; i <= template.length(); ++i) {
+                final char c = i < template.length() ? template.charAt(i) : '/';
+                if (c == '{') {
+                    ++depth;
+                } else if (c == '}') {
+                    --depth;
+                    if (depth < 0) {
+                        throw new IllegalArgumentException(
+                                "unbalanced braces: " + template);
+                    }
+                } else if (c == '/' && depth == 0) {
+                    if (i > start) {
+                        segments.add(template.substring(start, i));
+                    }
+                    start = i + 1;
+                }
+            }
+            if (depth != 0) {
+                throw new IllegalArgumentException("unbalanced braces: "
+                        + template);
+            }
+            return segments;
+        }
+
+        private static int closing(final String segment, final int open) {
+            int depth = 0;
+            for (int i = open; i < segment.length(); ++i) {
+                final char c = segment.charAt(i);
+                if (c == '{') {
+                    ++depth;
+                } else if (c == '}' && --depth == 0) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("unbalanced braces: " + segment);
+        }
+
+        private static boolean isHex(final byte c) {
+            return c >= '0' && c <= '9' || c >= 'a' && c <= 'f' || c >= 'A'
+                    && c <= 'F';
+        }
+
+        /**
+         * Whether a character may appear unencoded in a path segment (RFC
+         * 3986 pchar).
+         */
+        private static boolean isPathChar(final int c) {
+            return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0'
+                    && c <= '9' || "-._~!$&'()*+,;=:@".indexOf(c) >= 0;
+        }
+
+        /**
+         * Regular expression of the variable opening at a position, or null if
+         * it has none.
+         */
+        private static String variableRegex(final String segment,
+                final int open) {
+            final String body = segment.substring(open + 1,
+                    closing(segment, open));
+            final int colon = body.indexOf(':');
+            if (colon < 0) {
+                return null;
+            }
+            final String regex = body.substring(colon + 1).trim();
+            return regex.isEmpty() ? null : regex;
+        }
+
+    }
+
+}
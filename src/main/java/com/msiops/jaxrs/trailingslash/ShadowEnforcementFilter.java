@@ -0,0 +1,66 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+
+/**
+ * Dry-run enforcement filter for a single resource method. Applies a
+ * candidate policy and counts would-be rejections but never aborts.
+ */
+final class ShadowEnforcementFilter implements ContainerRequestFilter {
+
+    private final LongAdder evaluated = new LongAdder();
+
+    private final PathEvaluation pathEvaluation;
+
+    private final Policy policy;
+
+    private final String route;
+
+    private final LongAdder wouldReject = new LongAdder();
+
+    ShadowEnforcementFilter(final String route, final Policy policy,
+            final PathEvaluation pathEvaluation) {
+        this.route = route;
+        this.policy = policy;
+        this.pathEvaluation = pathEvaluation;
+    }
+
+    @Override
+    public void filter(final ContainerRequestContext requestContext) {
+        this.evaluated.increment();
+        if (!this.policy.pass(this.pathEvaluation.rightHandPath(
+                requestContext, this.policy))) {
+            this.wouldReject.increment();
+        }
+    }
+
+    ShadowRouteStats stats() {
+        /*
+         * read rejections first so the snapshot never shows more rejections
+         * than evaluations.
+         */
+        final long rejects = this.wouldReject.sum();
+        return new ShadowRouteStats(this.route, this.policy,
+                this.evaluated.sum(), rejects);
+    }
+
+}
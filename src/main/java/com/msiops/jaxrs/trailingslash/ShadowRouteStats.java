@@ -0,0 +1,93 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+/**
+ * Shadow enforcement counts of one resource method.
+ */
+public final class ShadowRouteStats {
+
+    private final long evaluated;
+
+    private final Policy policy;
+
+    private final String route;
+
+    private final long wouldReject;
+
+    ShadowRouteStats(final String route, final Policy policy,
+            final long evaluated, final long wouldReject) {
+        this.route = route;
+        this.policy = policy;
+        this.evaluated = evaluated;
+        this.wouldReject = wouldReject;
+    }
+
+    /**
+     * Requests tested against the candidate policy.
+     *
+     * @return count.
+     */
+    public long evaluated() {
+        return this.evaluated;
+    }
+
+    /**
+     * Candidate policy of the resource method.
+     *
+     * @return policy.
+     */
+    public Policy policy() {
+        return this.policy;
+    }
+
+    /**
+     * Resource method, as <i>class name</i>#<i>method name</i>(<i>parameter
+     * types</i>).
+     *
+     * @return route name.
+     */
+    public String route() {
+        return this.route;
+    }
+
+    /**
+     * Requests the candidate policy would have rejected.
+     *
+     * @return count.
+     */
+    public long wouldReject() {
+        return this.wouldReject;
+    }
+
+    /**
+     * Fraction of requests the candidate policy would have rejected.
+     *
+     * @return rate between 0 and 1, 0 if nothing was evaluated.
+     */
+    public double wouldRejectRate() {
+        return this.evaluated == 0 ? 0 : (double) this.wouldReject
+                / this.evaluated;
+    }
+
+    @Override
+    public String toString() {
+        return this.route + " " + this.policy + " " + this.wouldReject + "/"
+                + this.evaluated;
+    }
+
+}
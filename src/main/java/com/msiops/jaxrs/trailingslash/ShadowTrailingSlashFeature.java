@@ -0,0 +1,127 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+
+/**
+ * <p>
+ * Dry-run of a candidate policy. For each resource method, the policy is
+ * resolved as by {@link TrailingSlashFeature} with the candidate as default,
+ * and a filter that tests requests against it is bound to the method. The
+ * filter never rejects a request. It counts how many requests the policy
+ * would have rejected, per resource method, so that the effect of changing
+ * the policy can be judged on real traffic before it is enforced.
+ * </p>
+ *
+ * <p>
+ * Counting uses one pair of {@link java.util.concurrent.atomic.LongAdder}s
+ * per method and does not allocate. Shadow filters run ahead of enforcement
+ * filters of default priority, so current enforcement can stay in place.
+ * Methods whose candidate policy is {@link PolicyImpl#ALLOW} are not tested.
+ * </p>
+ */
+public final class ShadowTrailingSlashFeature implements DynamicFeature {
+
+    private final Policy candidate;
+
+    private final Map<String, ShadowEnforcementFilter> filters = new ConcurrentSkipListMap<>();
+
+    private final PathEvaluation pathEvaluation;
+
+    /**
+     * Create feature that tries a candidate default policy.
+     *
+     * @param candidate
+     *            policy tried on resource methods whose method and class are
+     *            not annotated.
+     */
+    public ShadowTrailingSlashFeature(final Policy candidate) {
+        this(candidate, PathEvaluation.DECODED);
+    }
+
+    /**
+     * Create feature that tries a candidate default policy, obtaining request
+     * paths in a specific way.
+     *
+     * @param candidate
+     *            policy tried on resource methods whose method and class are
+     *            not annotated.
+     *
+     * @param pathEvaluation
+     *            how to obtain the path tested by the policy.
+     */
+    public ShadowTrailingSlashFeature(final Policy candidate,
+            final PathEvaluation pathEvaluation) {
+        this.candidate = Objects.requireNonNull(candidate);
+        this.pathEvaluation = Objects.requireNonNull(pathEvaluation);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException
+     *             if the resource method or its class declares more than one
+     *             policy.
+     */
+    @Override
+    public void configure(final ResourceInfo resourceInfo,
+            final FeatureContext context) {
+
+        final Method method = resourceInfo.getResourceMethod();
+        if (method == null) {
+            return;
+        }
+
+        final Class<?> resourceClass = resourceInfo.getResourceClass();
+        final Policy policy = PolicyAnnotations.resolve(resourceClass, method,
+                this.candidate);
+        if (policy != PolicyImpl.ALLOW) {
+            final String route = PolicyAnnotations.route(resourceClass,
+                    method);
+            context.register(
+                    this.filters.computeIfAbsent(route,
+                            k -> new ShadowEnforcementFilter(k, policy,
+                                    this.pathEvaluation)), Priorities.USER - 1);
+        }
+
+    }
+
+    /**
+     * Counts so far.
+     *
+     * @return counts of each tested resource method, by route name.
+     */
+    public List<ShadowRouteStats> stats() {
+        final List<ShadowRouteStats> stats = new ArrayList<>();
+        for (final ShadowEnforcementFilter f : this.filters.values()) {
+            stats.add(f.stats());
+        }
+        return stats;
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.lang.reflect.Method;
+import java.util.EnumSet;
+import java.util.Set;
+
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * <p>
+ * Refuse, at deployment, policy annotations restricted to request methods on
+ * resources whose policies are applied by the name-bound static filters. The
+ * static filters bind by annotation type and cannot honor a restriction, and
+ * two of them bound to the same method would race at the same priority.
+ * {@link TrailingSlashFeature} resolves restrictions instead.
+ * </p>
+ *
+ * <p>
+ * This check is discovered along with the static filters and registered by
+ * {@link StaticTrailingSlashFeature}. It binds nothing.
+ * </p>
+ */
+@Provider
+public final class StaticAnnotationCheck implements DynamicFeature {
+
+    private final Set<PolicyImpl> policies;
+
+    /**
+     * Create check of the annotations of every policy.
+     */
+    public StaticAnnotationCheck() {
+        this(EnumSet.allOf(PolicyImpl.class));
+    }
+
+    /**
+     * Create check of the annotations of selected policies.
+     *
+     * @param policies
+     *            policies whose annotation is honored.
+     */
+    StaticAnnotationCheck(final Set<PolicyImpl> policies) {
+        this.policies = EnumSet.noneOf(PolicyImpl.class);
+        this.policies.addAll(policies);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException
+     *             if the resource method or its class declares a policy
+     *             restricted to request methods.
+     */
+    @Override
+    public void configure(final ResourceInfo resourceInfo,
+            final FeatureContext context) {
+
+        final Method method = resourceInfo.getResourceMethod();
+        if (method == null) {
+            return;
+        }
+
+        for (final PolicyImpl p : this.policies) {
+            if (PolicyAnnotations.restricted(method, p)
+                    || PolicyAnnotations.restricted(
+                            resourceInfo.getResourceClass(), p)) {
+                throw new IllegalStateException("trailing slash policy " + p
+                        + " restricted to request methods on " + method
+                        + " needs " + TrailingSlashFeature.class.getName());
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.ws.rs.core.Feature;
+import javax.ws.rs.core.FeatureContext;
+
+/**
+ * <p>
+ * Explicit registration of what automatic discovery finds: the enforcement
+ * filter and the static filters that apply {@link AllowTrailingSlash},
+ * {@link ProhibitTrailingSlash}, and {@link RequireTrailingSlash} to
+ * annotated resources. Unlike discovery, this needs no package scanning at
+ * startup. Like discovery, it binds by annotation type, so policies
+ * restricted to request methods need {@link TrailingSlashFeature} instead.
+ * Deployment fails with an {@link IllegalStateException} if a resource
+ * declares one of them, see {@link StaticAnnotationCheck}.
+ * </p>
+ *
+ * <p>
+ * Do not combine this feature with discovery of this package, which would
+ * register the same filters again. The feature is not annotated as a provider
+ * so that discovery does not pick it up.
+ * </p>
+ */
+public final class StaticTrailingSlashFeature implements Feature {
+
+    private final EnforcementOptions options;
+
+    private final Set<PolicyImpl> policies;
+
+    /**
+     * Create feature that registers a default enforcement filter and every
+     * static filter.
+     */
+    public StaticTrailingSlashFeature() {
+        this(EnforcementOptions.DEFAULTS, PolicyImpl.values());
+    }
+
+    /**
+     * Create feature that registers an enforcement filter with specific
+     * options and the static filters of selected policies.
+     *
+     * @param options
+     *            enforcement options.
+     *
+     * @param policies
+     *            policies whose annotation is honored. Annotations of other
+     *            policies are ignored.
+     */
+    public StaticTrailingSlashFeature(final EnforcementOptions options,
+            final PolicyImpl... policies) {
+        this.options = Objects.requireNonNull(options);
+        this.policies = EnumSet.noneOf(PolicyImpl.class);
+        for (final PolicyImpl p : policies) {
+            this.policies.add(Objects.requireNonNull(p));
+        }
+    }
+
+    @Override
+    public boolean configure(final FeatureContext context) {
+
+        context.register(new TrailingSlashEnforcementFilter(this.options));
+        for (final PolicyImpl p : this.policies) {
+            context.register(staticFilter(p));
+        }
+        context.register(new StaticAnnotationCheck(this.policies));
+        return true;
+
+    }
+
+    private static Class<?> staticFilter(final PolicyImpl policy) {
+        switch (policy) {
+        case ALLOW:
+            return AllowTrailingSlashStaticFilter.class;
+        case PROHIBIT:
+            return ProhibitTrailingSlashStaticFilter.class;
+        case REQUIRE:
+            return RequireTrailingSlashStaticFilter.class;
+        default:
+            throw new AssertionError(policy);
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.Response.StatusType;
+
+/**
+ * Status type resolution. Responses built from a resolved status type keep the
+ * implementation from creating one per response.
+ */
+final class StatusTypes {
+
+    /**
+     * Resolve a status code.
+     *
+     * @param status
+     *            status code.
+     *
+     * @return the {@link Status} constant for the code, if there is one, or a
+     *         custom status type.
+     *
+     * @throws IllegalArgumentException
+     *             if the code is not a valid HTTP status code.
+     */
+    static StatusType of(final int status) {
+        if (status < 100 || status > 599) {
+            throw new IllegalArgumentException("invalid status: " + status);
+        }
+        final Status known = Status.fromStatusCode(status);
+        return known != null ? known : new CustomStatus(status);
+    }
+
+    private StatusTypes() {
+        throw new AssertionError("no instances");
+    }
+
+    /**
+     * Status without a {@link Status} constant.
+     */
+    private static final class CustomStatus implements StatusType {
+
+        private final int code;
+
+        private final Status.Family family;
+
+        CustomStatus(final int code) {
+            this.code = code;
+            this.family = Status.Family.familyOf(code);
+        }
+
+        @Override
+        public Status.Family getFamily() {
+            return this.family;
+        }
+
+        @Override
+        public String getReasonPhrase() {
+            return "";
+        }
+
+        @Override
+        public int getStatusCode() {
+            return this.code;
+        }
+
+    }
+
+}
@@ -16,12 +16,12 @@
  */
 package com.msiops.jaxrs.trailingslash;
 
-import java.io.IOException;
+import java.util.Objects;
+import java.util.function.Supplier;
 
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerRequestFilter;
-import javax.ws.rs.core.Response;
-import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.Provider;
 
 /**
@@ -32,60 +32,203 @@ import javax.ws.rs.ext.Provider;
  * </p>
  *
  * <p>
- * If a policy is not found, {@link #DEFAULT_POLICY} is used.
+ * If a policy is not found, the policy of the best {@link PathPrefixPolicies}
+ * rule for the request path is used, if the filter was given rules. Failing
+ * that, the default policy of the filter's {@link PolicyControl}, or
+ * {@link #DEFAULT_POLICY} if it has none, is used. A filter can have both
+ * rules and a control.
+ * </p>
+ *
+ * <p>
+ * The path tested by the policy is obtained according to a
+ * {@link PathEvaluation}, and rejected requests are aborted with a
+ * {@link Rejection}. Both come from the {@link EnforcementOptions} given at
+ * construction, {@link EnforcementOptions#DEFAULTS} if none is given.
  * </p>
  *
  */
 @Provider
-public final class TrailingSlashEnforcementFilter implements
-ContainerRequestFilter {
+public final class TrailingSlashEnforcementFilter extends
+AbstractEnforcementFilter implements ContainerRequestFilter {
 
     public static final Policy DEFAULT_POLICY = PolicyImpl.PROHIBIT;
 
     public static final String REQUEST_KEY = "com.msiops.jaxrs.TrailingSlashPolicy";
 
+    private static Supplier<PathPrefixPolicies> fixed(
+            final PathPrefixPolicies prefixes) {
+        Objects.requireNonNull(prefixes);
+        return () -> prefixes;
+    }
+
+    /**
+     * Runtime control of the default policy, null if none was given.
+     */
+    private final PolicyControl control;
+
     /**
-     * Generate abortive response.
+     * Path prefix rules, null if none were given.
+     */
+    private final Supplier<PathPrefixPolicies> prefixes;
+
+    public TrailingSlashEnforcementFilter() {
+        this(EnforcementOptions.DEFAULTS);
+    }
+
+    /**
+     * Create enforcement filter with specific options.
      *
-     * @return abort response.
+     * @param options
+     *            enforcement options.
      */
-    private static Response abortResponse() {
-        return Response.status(Status.NOT_FOUND).build();
+    public TrailingSlashEnforcementFilter(final EnforcementOptions options) {
+        this(null, (Supplier<PathPrefixPolicies>) null, options);
     }
 
     /**
-     * Conform configured policy.
+     * Create enforcement filter whose default policy can be changed at
+     * runtime.
      *
-     * @param v
-     *            proposed policy. Can be null.
+     * @param control
+     *            supplies the default policy.
      *
-     * @return proposed policy if not null, {@link #DEFAULT_POLICY} otherwise.
+     * @param options
+     *            enforcement options.
      */
-    private static Policy orDefault(final Object v) {
-        /*
-         * fail fast (class cast x) if a non-policy object is found.
-         */
-        return v != null ? (Policy) v : DEFAULT_POLICY;
+    public TrailingSlashEnforcementFilter(final PolicyControl control,
+            final EnforcementOptions options) {
+        this(Objects.requireNonNull(control),
+                (Supplier<PathPrefixPolicies>) null, options);
+    }
+
+    /**
+     * Create enforcement filter that falls back to path prefix rules, and to
+     * a default policy that can be changed at runtime where no rule matches.
+     *
+     * @param control
+     *            supplies the default policy.
+     *
+     * @param prefixes
+     *            rules consulted when no policy is found in the context
+     *            property.
+     *
+     * @param options
+     *            enforcement options.
+     */
+    public TrailingSlashEnforcementFilter(final PolicyControl control,
+            final PathPrefixPolicies prefixes, final EnforcementOptions options) {
+        this(Objects.requireNonNull(control), fixed(prefixes), options);
+    }
+
+    /**
+     * Create enforcement filter that falls back to path prefix rules that can
+     * change, and to a default policy that can be changed at runtime where no
+     * rule matches.
+     *
+     * @param control
+     *            supplies the default policy, null for
+     *            {@link #DEFAULT_POLICY}.
+     *
+     * @param prefixes
+     *            supplies the rules consulted when no policy is found in the
+     *            context property, null for none. Called once per such
+     *            request, so it must be fast.
+     *
+     * @param options
+     *            enforcement options.
+     */
+    public TrailingSlashEnforcementFilter(final PolicyControl control,
+            final Supplier<PathPrefixPolicies> prefixes,
+            final EnforcementOptions options) {
+        super(options);
+        this.control = control;
+        this.prefixes = prefixes;
+    }
+
+    /**
+     * Create enforcement filter that falls back to path prefix rules.
+     *
+     * @param prefixes
+     *            rules consulted when no policy is found in the context
+     *            property.
+     */
+    public TrailingSlashEnforcementFilter(final PathPrefixPolicies prefixes) {
+        this(prefixes, EnforcementOptions.DEFAULTS);
+    }
+
+    /**
+     * Create enforcement filter that falls back to path prefix rules, with
+     * specific options.
+     *
+     * @param prefixes
+     *            rules consulted when no policy is found in the context
+     *            property.
+     *
+     * @param options
+     *            enforcement options.
+     */
+    public TrailingSlashEnforcementFilter(final PathPrefixPolicies prefixes,
+            final EnforcementOptions options) {
+        this(fixed(prefixes), options);
+    }
+
+    /**
+     * Create enforcement filter that falls back to path prefix rules that can
+     * change, e.g. {@link ReloadablePathPolicies}.
+     *
+     * @param prefixes
+     *            supplies the rules consulted when no policy is found in the
+     *            context property. Called once per such request, so it must
+     *            be fast.
+     *
+     * @param options
+     *            enforcement options.
+     */
+    public TrailingSlashEnforcementFilter(
+            final Supplier<PathPrefixPolicies> prefixes,
+            final EnforcementOptions options) {
+        this(null, Objects.requireNonNull(prefixes), options);
+    }
+
+    /**
+     * Create enforcement filter that obtains request paths in a specific way.
+     *
+     * @param pathEvaluation
+     *            how to obtain the path tested by the policy.
+     */
+    public TrailingSlashEnforcementFilter(final PathEvaluation pathEvaluation) {
+        this(EnforcementOptions.DEFAULTS.withPathEvaluation(pathEvaluation));
     }
 
     @Override
-    public void filter(final ContainerRequestContext requestContext)
-            throws IOException {
+    protected void decide(final ContainerRequestContext requestContext) {
 
         /*
-         * obtain configured policy from well-known policy property.
+         * obtain configured policy from well-known policy property. Fail
+         * fast (class cast x) if a non-policy object is found.
          */
-        final Policy policy = orDefault(requestContext.getProperty(REQUEST_KEY));
+        final Object injected = requestContext.getProperty(REQUEST_KEY);
+        if (injected != null) {
+            enforce(requestContext, (Policy) injected, PolicySource.PROPERTY);
+            return;
+        }
 
-        /*
-         * apply policy test to resource path.
-         */
-        if (!policy.pass(requestContext.getUriInfo().getPath())) {
-            /*
-             * fail! reject request.
-             */
-            requestContext.abortWith(abortResponse());
-        } // else request lives
+        if (this.prefixes != null) {
+            final UriInfo uriInfo = requestContext.getUriInfo();
+            final String path = uriInfo.getRequestUri().getRawPath();
+            final int from = Math.min(uriInfo.getBaseUri().getRawPath()
+                    .length(), path.length());
+            final Policy prefixed = this.prefixes.get().lookup(path, from,
+                    path.length());
+            if (prefixed != null) {
+                enforce(requestContext, prefixed, PolicySource.PREFIX);
+                return;
+            }
+        }
+
+        enforce(requestContext, this.control != null ? this.control
+                .defaultPolicy() : DEFAULT_POLICY, PolicySource.DEFAULT);
 
     }
+
 }
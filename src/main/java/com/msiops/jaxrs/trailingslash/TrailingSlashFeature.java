@@ -0,0 +1,165 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+
+/**
+ * <p>
+ * Deploy-time policy resolution. For each resource method, the effective
+ * policy is resolved once from {@link AllowTrailingSlash},
+ * {@link ProhibitTrailingSlash}, or {@link RequireTrailingSlash} on the
+ * method, then on the class, then from a default. An enforcement filter with
+ * that policy built in is bound to the method. Nothing is written to or read
+ * from the request properties.
+ * </p>
+ *
+ * <p>
+ * No filter is bound where the effective policy is {@link PolicyImpl#ALLOW}
+ * since it would pass every request, unless the feature is created with a
+ * {@link PolicyControl}. Then every resource method gets a filter whose policy
+ * can be overridden at runtime, and unannotated methods follow the control's
+ * default policy.
+ * </p>
+ *
+ * <p>
+ * This feature replaces {@link TrailingSlashEnforcementFilter} and the policy
+ * injection filters. Do not combine them. In particular, do not use package
+ * discovery along with this feature. The feature is not annotated as a
+ * provider so that discovery does not pick it up.
+ * </p>
+ */
+public final class TrailingSlashFeature implements DynamicFeature {
+
+    /**
+     * Runtime control, null if policies are fixed at deployment.
+     */
+    private final PolicyControl control;
+
+    private final Policy defaultPolicy;
+
+    private final EnforcementOptions options;
+
+    /**
+     * Create feature that applies
+     * {@link TrailingSlashEnforcementFilter#DEFAULT_POLICY} to unannotated
+     * resources.
+     */
+    public TrailingSlashFeature() {
+        this(TrailingSlashEnforcementFilter.DEFAULT_POLICY);
+    }
+
+    /**
+     * Create feature with a global default policy.
+     *
+     * @param defaultPolicy
+     *            policy applied to resource methods whose method and class are
+     *            not annotated.
+     */
+    public TrailingSlashFeature(final Policy defaultPolicy) {
+        this(defaultPolicy, PathEvaluation.DECODED);
+    }
+
+    /**
+     * Create feature with a global default policy and path evaluation.
+     *
+     * @param defaultPolicy
+     *            policy applied to resource methods whose method and class are
+     *            not annotated.
+     *
+     * @param pathEvaluation
+     *            how enforcement filters obtain the path tested by the policy.
+     */
+    public TrailingSlashFeature(final Policy defaultPolicy,
+            final PathEvaluation pathEvaluation) {
+        this(defaultPolicy, EnforcementOptions.DEFAULTS
+                .withPathEvaluation(pathEvaluation));
+    }
+
+    /**
+     * Create feature with a global default policy and enforcement options.
+     *
+     * @param defaultPolicy
+     *            policy applied to resource methods whose method and class are
+     *            not annotated.
+     *
+     * @param options
+     *            options of the bound enforcement filters.
+     */
+    public TrailingSlashFeature(final Policy defaultPolicy,
+            final EnforcementOptions options) {
+        this.defaultPolicy = Objects.requireNonNull(defaultPolicy);
+        this.options = Objects.requireNonNull(options);
+        this.control = null;
+    }
+
+    /**
+     * Create feature whose policies can be changed at runtime.
+     *
+     * @param control
+     *            supplies the default policy and per-method overrides.
+     *
+     * @param options
+     *            options of the bound enforcement filters.
+     */
+    public TrailingSlashFeature(final PolicyControl control,
+            final EnforcementOptions options) {
+        this.control = Objects.requireNonNull(control);
+        this.options = Objects.requireNonNull(options);
+        this.defaultPolicy = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException
+     *             if the resource method or its class declares more than one
+     *             policy.
+     */
+    @Override
+    public void configure(final ResourceInfo resourceInfo,
+            final FeatureContext context) {
+
+        final Method method = resourceInfo.getResourceMethod();
+        if (method == null) {
+            return;
+        }
+
+        if (this.control != null) {
+            final Class<?> resourceClass = resourceInfo.getResourceClass();
+            context.register(new ControlledEnforcementFilter(this.control,
+                    this.control.controlled(PolicyAnnotations.route(
+                            resourceClass, method)), PolicyAnnotations.resolve(
+                            resourceClass, method, null), this.options));
+            return;
+        }
+
+        final Policy policy = PolicyAnnotations.resolve(
+                resourceInfo.getResourceClass(), method, this.defaultPolicy);
+        if (policy != PolicyImpl.ALLOW) {
+            context.register(new ResourceEnforcementFilter(policy,
+                    this.options));
+        }
+
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Objects;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.core.UriInfo;
+
+/**
+ * <p>
+ * Pre-matching filter that silently rewrites a request to the canonical form
+ * of its URI. Before resource matching, the policy of the resource method the
+ * request would match is looked up in a {@link RoutePolicyIndex}. Under
+ * {@link PolicyImpl#REQUIRE}, a missing trailing slash is appended; under
+ * {@link PolicyImpl#PROHIBIT}, trailing slashes are removed. The client does
+ * not see a redirect.
+ * </p>
+ *
+ * <p>
+ * Requests for which the index knows no policy are left alone. Combine this
+ * filter with post-matching enforcement, e.g. {@link TrailingSlashFeature}, to
+ * enforce policy on those. Rewritten requests pass enforcement.
+ * </p>
+ *
+ * <p>
+ * Only plain slashes are added or removed. A trailing encoded slash (%2F) is
+ * path data as far as this filter is concerned.
+ * </p>
+ */
+@PreMatching
+public final class TrailingSlashRewriteFilter implements ContainerRequestFilter {
+
+    private static URI rewritten(final URI requestUri, final String path,
+            final String suffix) {
+        final String query = requestUri.getRawQuery();
+        final StringBuilder b = new StringBuilder(requestUri.getScheme())
+                .append("://").append(requestUri.getRawAuthority())
+                .append(path).append(suffix);
+        if (query != null) {
+            b.append('?').append(query);
+        }
+        return URI.create(b.toString());
+    }
+
+    private final RoutePolicyIndex index;
+
+    /**
+     * Create rewrite filter.
+     *
+     * @param index
+     *            policies of the application's resource methods.
+     */
+    public TrailingSlashRewriteFilter(final RoutePolicyIndex index) {
+        this.index = Objects.requireNonNull(index);
+    }
+
+    @Override
+    public void filter(final ContainerRequestContext requestContext)
+            throws IOException {
+
+        final UriInfo uriInfo = requestContext.getUriInfo();
+        final URI requestUri = uriInfo.getRequestUri();
+        final String path = requestUri.getRawPath();
+        final int from = uriInfo.getBaseUri().getRawPath().length();
+
+        int to = path.length();
+        while (to > from && path.charAt(to - 1) == '/') {
+            --to;
+        }
+        if (to <= from) {
+            /*
+             * application root, nothing to rewrite.
+             */
+            return;
+        }
+        final boolean slash = to < path.length();
+
+        final Policy policy = this.index.lookup(requestContext.getMethod(),
+                path, from, to);
+        if (policy == PolicyImpl.REQUIRE && !slash) {
+            requestContext.setRequestUri(rewritten(requestUri, path, "/"));
+        } else if (policy == PolicyImpl.PROHIBIT && slash) {
+            requestContext.setRequestUri(rewritten(requestUri,
+                    path.substring(0, to), ""));
+        }
+
+    }
+
+}
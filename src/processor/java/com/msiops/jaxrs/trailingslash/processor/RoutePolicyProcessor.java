@@ -0,0 +1,440 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package com.msiops.jaxrs.trailingslash.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * <p>
+ * Annotation processor that resolves the effective policy of every resource
+ * method at compile time and generates a route policy table. The table is a
+ * class with static methods that build a
+ * <code>com.msiops.jaxrs.trailingslash.RoutePolicyIndex</code> from string
+ * constants, so the index is available at startup without reflection.
+ * </p>
+ *
+ * <p>
+ * Resolution is the same as at runtime: a policy annotation on a public
+ * resource method wins over one on its root resource class, and the default
+ * policy, passed to the table when the index is built, applies to the rest.
+ * On either, a policy restricted to the method's request method wins over an
+ * unrestricted one.
+ * Class and method path templates are joined as JAX-RS does. A method without
+ * JAX-RS annotations takes those of the method it overrides, in a superclass
+ * first and then in an interface, as JAX-RS annotations are inherited; its
+ * policy annotations are still its own. An element with
+ * more than one policy annotation for the same request method is a compile
+ * error.
+ * </p>
+ *
+ * <p>
+ * The option <code>trailingslash.routeTable</code> names the generated class.
+ * It defaults to <code>TrailingSlashRoutes</code> in the package of the first
+ * resource class by name. The table covers the resources of one compilation,
+ * so resources must be compiled together, and it is generated in the first
+ * round that finds resources.
+ * </p>
+ */
+@SupportedOptions(RoutePolicyProcessor.TABLE_OPTION)
+public final class RoutePolicyProcessor extends AbstractProcessor {
+
+    /**
+     * Option naming the generated class.
+     */
+    public static final String TABLE_OPTION = "trailingslash.routeTable";
+
+    static final String DEFAULT_TABLE = "TrailingSlashRoutes";
+
+    private static final String HTTP_METHOD = "javax.ws.rs.HttpMethod";
+
+    private static final String PATH = "javax.ws.rs.Path";
+
+    private static final String POLICY_PACKAGE = "com.msiops.jaxrs.trailingslash";
+
+    /**
+     * Policy annotation names, in the order of the policy constants they
+     * stand for.
+     */
+    private static final List<String> POLICIES = Collections
+            .unmodifiableList(Arrays.asList("ALLOW", "PROHIBIT", "REQUIRE"));
+
+    private static final List<String> POLICY_ANNOTATIONS = Collections
+            .unmodifiableList(Arrays.asList(POLICY_PACKAGE
+                    + ".AllowTrailingSlash", POLICY_PACKAGE
+                    + ".ProhibitTrailingSlash", POLICY_PACKAGE
+                    + ".RequireTrailingSlash"));
+
+    private static String literal(final String s) {
+        final StringBuilder b = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); ++i) {
+            final char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                b.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                b.append(String.format("\\u%04x", (int) c));
+            } else {
+                b.append(c);
+            }
+        }
+        return b.append('"').toString();
+    }
+
+    private static List<String> methods(final AnnotationMirror a) {
+        final List<String> methods = new ArrayList<>();
+        for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : a
+                .getElementValues().entrySet()) {
+            if (e.getKey().getSimpleName().contentEquals("methods")) {
+                for (final Object v : (List<?>) e.getValue().getValue()) {
+                    methods.add((String) ((AnnotationValue) v).getValue());
+                }
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * Whether two policies apply to a common method. An unrestricted policy
+     * only overlaps with another unrestricted one.
+     */
+    private static boolean overlap(final List<String> a, final List<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return a.isEmpty() && b.isEmpty();
+        }
+        return !Collections.disjoint(a, b);
+    }
+
+    private static String stringValue(final AnnotationMirror a) {
+        for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : a
+                .getElementValues().entrySet()) {
+            if (e.getKey().getSimpleName().contentEquals("value")) {
+                return (String) e.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private boolean generated;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        final Set<String> types = new HashSet<>(POLICY_ANNOTATIONS);
+        types.add(PATH);
+        return types;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations,
+            final RoundEnvironment roundEnv) {
+
+        boolean conflicts = false;
+        final Set<Element> checked = new HashSet<>();
+        for (final TypeElement a : annotations) {
+            if (POLICY_ANNOTATIONS.contains(a.getQualifiedName().toString())) {
+                for (final Element e : roundEnv.getElementsAnnotatedWith(a)) {
+                    if (checked.add(e) && declared(e, null) < -1) {
+                        conflicts = true;
+                    }
+                }
+            }
+        }
+
+        if (this.generated || conflicts || roundEnv.processingOver()) {
+            return false;
+        }
+
+        final List<TypeElement> resources = new ArrayList<>();
+        for (final Element e : roundEnv.getRootElements()) {
+            if (e.getKind() == ElementKind.CLASS
+                    && !e.getModifiers().contains(Modifier.ABSTRACT)
+                    && annotation(e, PATH) != null) {
+                resources.add((TypeElement) e);
+            }
+        }
+        if (resources.isEmpty()) {
+            return false;
+        }
+        resources.sort((a, b) -> a.getQualifiedName().toString()
+                .compareTo(b.getQualifiedName().toString()));
+
+        final List<String> routes = new ArrayList<>();
+        for (final TypeElement c : resources) {
+            final String classPath = stringValue(annotation(c, PATH));
+            for (final ExecutableElement m : ElementFilter
+                    .methodsIn(this.processingEnv.getElementUtils()
+                            .getAllMembers(c))) {
+                final ExecutableElement annotated = annotated(m, c);
+                final String httpMethod = httpMethod(annotated);
+                if (httpMethod == null
+                        || !m.getModifiers().contains(Modifier.PUBLIC)) {
+                    continue;
+                }
+                final AnnotationMirror methodPath = annotation(annotated, PATH);
+                final int onMethod = declared(m, httpMethod);
+                final int policy = onMethod >= 0 ? onMethod : declared(c,
+                        httpMethod);
+                routes.add(".route("
+                        + literal(classPath
+                                + "/"
+                                + (methodPath == null ? ""
+                                        : stringValue(methodPath))) + ", "
+                        + literal(httpMethod) + ", "
+                        + (policy >= 0 ? "PolicyImpl." + POLICIES.get(policy)
+                                : "defaultPolicy") + ")");
+            }
+        }
+
+        final String option = this.processingEnv.getOptions().get(
+                TABLE_OPTION);
+        final String table;
+        if (option != null) {
+            table = option;
+        } else {
+            final PackageElement p = this.processingEnv.getElementUtils()
+                    .getPackageOf(resources.get(0));
+            table = p.isUnnamed() ? DEFAULT_TABLE : p.getQualifiedName()
+                    + "." + DEFAULT_TABLE;
+        }
+
+        try {
+            write(table, routes, resources);
+        } catch (final IOException x) {
+            this.processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "cannot write route policy table " + table + ": " + x);
+        }
+        this.generated = true;
+        return false;
+
+    }
+
+    /**
+     * Method that carries the JAX-RS annotations of a member of a resource
+     * class: the method itself if it has any, otherwise the nearest method
+     * it overrides that has.
+     */
+    private ExecutableElement annotated(final ExecutableElement m,
+            final TypeElement c) {
+        if (jaxrs(m)) {
+            return m;
+        }
+        final ExecutableElement inherited = inherited(m, c, c);
+        return inherited == null ? m : inherited;
+    }
+
+    /**
+     * Nearest method with JAX-RS annotations in the supertypes of a type,
+     * superclass first, that a member of a resource class overrides.
+     */
+    private ExecutableElement inherited(final ExecutableElement m,
+            final TypeElement type, final TypeElement resource) {
+        for (final TypeMirror t : this.processingEnv.getTypeUtils()
+                .directSupertypes(type.asType())) {
+            final TypeElement supertype = (TypeElement) ((DeclaredType) t)
+                    .asElement();
+            for (final ExecutableElement candidate : ElementFilter
+                    .methodsIn(supertype.getEnclosedElements())) {
+                if (jaxrs(candidate)
+                        && this.processingEnv.getElementUtils().overrides(m,
+                                candidate, resource)) {
+                    return candidate;
+                }
+            }
+            final ExecutableElement found = inherited(m, supertype, resource);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether a method has JAX-RS annotations, on itself or its parameters.
+     */
+    private boolean jaxrs(final ExecutableElement m) {
+        if (jaxrs(m.getAnnotationMirrors())) {
+            return true;
+        }
+        for (final VariableElement p : m.getParameters()) {
+            if (jaxrs(p.getAnnotationMirrors())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean jaxrs(final List<? extends AnnotationMirror> annotations) {
+        for (final AnnotationMirror a : annotations) {
+            final Element type = a.getAnnotationType().asElement();
+            if (((TypeElement) type).getQualifiedName().toString()
+                    .startsWith("javax.ws.rs.")
+                    || annotation(type, HTTP_METHOD) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private AnnotationMirror annotation(final Element e, final String type) {
+        for (final AnnotationMirror a : e.getAnnotationMirrors()) {
+            if (((TypeElement) a.getAnnotationType().asElement())
+                    .getQualifiedName().contentEquals(type)) {
+                return a;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Policy declared directly on an element for a request method, reporting
+     * an error if more than one applies to the same method. A policy
+     * restricted to the method wins over an unrestricted one.
+     *
+     * @param e
+     *            element.
+     *
+     * @param httpMethod
+     *            request method, null to only check for conflicts.
+     *
+     * @return index into {@link #POLICIES}, -1 if none applies, or -2 if
+     *         policies conflict.
+     */
+    private int declared(final Element e, final String httpMethod) {
+        final List<List<String>> methods = new ArrayList<>();
+        int unrestricted = -1;
+        int restricted = -1;
+        for (int i = 0; i < POLICY_ANNOTATIONS.size(); ++i) {
+            final AnnotationMirror a = annotation(e, POLICY_ANNOTATIONS.get(i));
+            methods.add(a == null ? null : methods(a));
+            if (a == null) {
+                continue;
+            }
+            for (int j = 0; j < i; ++j) {
+                if (methods.get(j) != null
+                        && overlap(methods.get(i), methods.get(j))) {
+                    this.processingEnv.getMessager().printMessage(
+                            Diagnostic.Kind.ERROR,
+                            "conflicting trailing slash policies "
+                                    + POLICIES.get(j) + " and "
+                                    + POLICIES.get(i), e);
+                    return -2;
+                }
+            }
+            if (methods.get(i).isEmpty()) {
+                unrestricted = i;
+            } else if (methods.get(i).contains(httpMethod)) {
+                restricted = i;
+            }
+        }
+        return restricted >= 0 ? restricted : unrestricted;
+    }
+
+    private String httpMethod(final ExecutableElement m) {
+        for (final AnnotationMirror a : m.getAnnotationMirrors()) {
+            final AnnotationMirror hm = annotation(a.getAnnotationType()
+                    .asElement(), HTTP_METHOD);
+            if (hm != null) {
+                return stringValue(hm);
+            }
+        }
+        return null;
+    }
+
+    private void write(final String table, final List<String> routes,
+            final List<TypeElement> resources) throws IOException {
+
+        final int dot = table.lastIndexOf('.');
+        final String simpleName = table.substring(dot + 1);
+
+        try (Writer w = this.processingEnv
+                .getFiler()
+                .createSourceFile(table,
+                        resources.toArray(new Element[resources.size()]))
+                .openWriter()) {
+
+            if (dot >= 0) {
+                w.write("package " + table.substring(0, dot) + ";\n\n");
+            }
+            w.write("import " + POLICY_PACKAGE + ".Policy;\n");
+            w.write("import " + POLICY_PACKAGE + ".PolicyImpl;\n");
+            w.write("import " + POLICY_PACKAGE + ".RoutePolicyIndex;\n");
+            w.write("import " + POLICY_PACKAGE
+                    + ".TrailingSlashEnforcementFilter;\n\n");
+            w.write("/**\n * Route policy table generated by "
+                    + RoutePolicyProcessor.class.getName()
+                    + ". Do not edit.\n */\n");
+            w.write("public final class " + simpleName + " {\n\n");
+
+            w.write("    /**\n     * Build the route policy index with "
+                    + "the library default policy.\n     *\n"
+                    + "     * @return index.\n     */\n");
+            w.write("    public static RoutePolicyIndex index() {\n");
+            w.write("        return index(TrailingSlashEnforcementFilter.DEFAULT_POLICY);\n");
+            w.write("    }\n\n");
+
+            w.write("    /**\n     * Build the route policy index.\n     *\n"
+                    + "     * @param defaultPolicy\n"
+                    + "     *            policy of resource methods that are not annotated.\n"
+                    + "     *\n     * @return index.\n     */\n");
+            w.write("    public static RoutePolicyIndex index(final Policy defaultPolicy) {\n");
+            w.write("        java.util.Objects.requireNonNull(defaultPolicy);\n");
+            w.write("        return RoutePolicyIndex.builder()");
+            for (final String r : routes) {
+                w.write("\n                " + r);
+            }
+            w.write("\n                .build();\n");
+            w.write("    }\n\n");
+
+            w.write("    private " + simpleName + "() {\n");
+            w.write("        throw new AssertionError(\"no instances\");\n");
+            w.write("    }\n\n}\n");
+
+        }
+
+    }
+
+}
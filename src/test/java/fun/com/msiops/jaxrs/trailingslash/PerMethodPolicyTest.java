@@ -0,0 +1,135 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package fun.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.Response.Status;
+
+import org.glassfish.jersey.jdkhttp.JdkHttpServerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.msiops.jaxrs.trailingslash.AllowTrailingSlash;
+import com.msiops.jaxrs.trailingslash.RequireTrailingSlash;
+import com.msiops.jaxrs.trailingslash.TrailingSlashFeature;
+
+/**
+ * Check that policies restricted to request methods are resolved per method.
+ */
+@RunWith(Parameterized.class)
+public class PerMethodPolicyTest {
+
+    private static final String BASE_URI = "http://localhost:8103/";
+
+    @Parameters
+    public static Collection<Object[]> cases() {
+
+        /*
+         * request method, path, expected pass.
+         */
+        return Arrays.<Object[]> asList(
+
+                new Object[] { HttpMethod.GET, "items", true },
+
+                new Object[] { HttpMethod.GET, "items/", true },
+
+                new Object[] { HttpMethod.HEAD, "items", true },
+
+                new Object[] { HttpMethod.POST, "items", false },
+
+                new Object[] { HttpMethod.POST, "items/", true }
+
+                );
+    }
+
+    @BeforeClass
+    public static void startServer() {
+
+        /*
+         * testing with jersey and JDK HTTP server
+         */
+        final ResourceConfig config = new ResourceConfig(ItemsResource.class)
+                .register(new TrailingSlashFeature());
+        JdkHttpServerFactory.createHttpServer(URI.create(BASE_URI), config);
+
+    }
+
+    private final String method;
+
+    private final boolean pass;
+
+    private final String path;
+
+    public PerMethodPolicyTest(final String method, final String path,
+            final boolean pass) {
+        this.method = method;
+        this.path = path;
+        this.pass = pass;
+    }
+
+    @Test
+    public void testPolicy() {
+
+        final int status = ClientBuilder
+                .newClient()
+                .target(BASE_URI)
+                .path(this.path)
+                .request()
+                .method(this.method,
+                        HttpMethod.POST.equals(this.method) ? Entity
+                                .text("x") : null).getStatus();
+
+        assertEquals((this.pass ? Status.OK : Status.NOT_FOUND)
+                .getStatusCode(), status);
+
+    }
+
+    @Path("/items")
+    @Produces("text/plain")
+    @RequireTrailingSlash
+    @AllowTrailingSlash(methods = HttpMethod.GET)
+    public static final class ItemsResource {
+
+        @POST
+        public String create(final String item) {
+            return item;
+        }
+
+        @GET
+        public String list() {
+            return "items";
+        }
+
+    }
+
+}
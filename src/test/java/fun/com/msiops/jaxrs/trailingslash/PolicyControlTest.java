@@ -0,0 +1,203 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package fun.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.Arrays;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.Response.Status;
+
+import org.glassfish.jersey.jdkhttp.JdkHttpServerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.msiops.jaxrs.trailingslash.EnforcementOptions;
+import com.msiops.jaxrs.trailingslash.PolicyControl;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.RequireTrailingSlash;
+import com.msiops.jaxrs.trailingslash.TrailingSlashFeature;
+
+/**
+ * Check that policies can be switched at runtime through JMX.
+ */
+public class PolicyControlTest {
+
+    private static final String BASE_URI = "http://localhost:8101/";
+
+    private static final String REQUIRE_ROUTE = DataResource.class.getName()
+            + "#requireSlash()";
+
+    private static PolicyControl control;
+
+    private static ObjectName name;
+
+    private static MBeanServer server;
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+
+        control = new PolicyControl(PolicyImpl.PROHIBIT);
+        name = control.register("fun");
+        server = ManagementFactory.getPlatformMBeanServer();
+
+        /*
+         * testing with jersey and JDK HTTP server
+         */
+        final ResourceConfig config = new ResourceConfig(DataResource.class)
+                .register(new TrailingSlashFeature(control,
+                        EnforcementOptions.DEFAULTS));
+        JdkHttpServerFactory.createHttpServer(URI.create(BASE_URI), config);
+
+    }
+
+    @AfterClass
+    public static void unregister() throws Exception {
+        server.unregisterMBean(name);
+    }
+
+    private static int get(final String path) {
+        return ClientBuilder.newClient().target(BASE_URI).path(path)
+                .request().get().getStatus();
+    }
+
+    private static int post(final String path) {
+        return ClientBuilder.newClient().target(BASE_URI).path(path)
+                .request().post(Entity.text("item")).getStatus();
+    }
+
+    @Before
+    public void reset() {
+        control.setDefaultPolicy(PolicyImpl.PROHIBIT);
+        control.clearOverrides();
+    }
+
+    @Test
+    public void testRoutesListed() throws Exception {
+
+        /*
+         * Jersey's own resources, e.g. WADL, are listed as well.
+         */
+        assertTrue(Arrays.asList(
+                (String[]) server.getAttribute(name, "Routes")).containsAll(
+                Arrays.asList(DataResource.class.getName() + "#getData()",
+                        REQUIRE_ROUTE)));
+
+    }
+
+    @Test
+    public void testSwitchDefault() throws Exception {
+
+        assertEquals(Status.NOT_FOUND.getStatusCode(), get("data/"));
+
+        server.setAttribute(name, new Attribute("DefaultPolicy", "ALLOW"));
+
+        assertEquals(Status.OK.getStatusCode(), get("data/"));
+        assertEquals(Status.OK.getStatusCode(), get("data"));
+
+        /*
+         * annotated method is not affected.
+         */
+        assertEquals(Status.NOT_FOUND.getStatusCode(), get("data/require"));
+
+    }
+
+    @Test
+    public void testOverrideRoute() throws Exception {
+
+        assertEquals(Status.NOT_FOUND.getStatusCode(), get("data/require"));
+
+        server.invoke(name, "setOverride", new Object[] { REQUIRE_ROUTE,
+                "PROHIBIT" }, new String[] { String.class.getName(),
+                String.class.getName() });
+
+        assertEquals(Status.OK.getStatusCode(), get("data/require"));
+        assertEquals(Status.NOT_FOUND.getStatusCode(), get("data/require/"));
+        assertEquals("PROHIBIT", control.getOverrides().get(REQUIRE_ROUTE));
+
+        server.invoke(name, "clearOverride", new Object[] { REQUIRE_ROUTE },
+                new String[] { String.class.getName() });
+
+        assertEquals(Status.NOT_FOUND.getStatusCode(), get("data/require"));
+
+    }
+
+    @Test
+    public void testOverloadsOverriddenApart() throws Exception {
+
+        control.setOverride(DataResource.class.getName()
+                + "#item(java.lang.String)", "REQUIRE");
+
+        assertEquals(Status.NOT_FOUND.getStatusCode(), post("data/item"));
+        assertEquals(Status.OK.getStatusCode(), post("data/item/"));
+        assertEquals(Status.OK.getStatusCode(), get("data/item"));
+        assertEquals(Status.NOT_FOUND.getStatusCode(), get("data/item/"));
+
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownRouteRejected() {
+
+        control.setOverride("nope#nope", "ALLOW");
+
+    }
+
+    @Path("/data")
+    @Produces("text/plain")
+    public static final class DataResource {
+
+        @GET
+        public String getData() {
+            return "data";
+        }
+
+        @Path("item")
+        @GET
+        public String item() {
+            return "item";
+        }
+
+        @Path("item")
+        @POST
+        public String item(final String body) {
+            return body;
+        }
+
+        @Path("require")
+        @RequireTrailingSlash
+        @GET
+        public String requireSlash() {
+            return "require";
+        }
+
+    }
+
+}
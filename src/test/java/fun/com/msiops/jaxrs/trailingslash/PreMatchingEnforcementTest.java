@@ -0,0 +1,147 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package fun.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.glassfish.jersey.jdkhttp.JdkHttpServerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.PreMatchingEnforcementFilter;
+import com.msiops.jaxrs.trailingslash.RequireTrailingSlash;
+import com.msiops.jaxrs.trailingslash.RoutePolicyIndex;
+
+/**
+ * Check that indexed policies are enforced before matching, without any
+ * post-matching enforcement.
+ */
+@RunWith(Parameterized.class)
+public class PreMatchingEnforcementTest {
+
+    private static final String BASE_URI = "http://localhost:8099/";
+
+    @Parameters
+    public static Collection<Object[]> cases() {
+
+        /*
+         * requested path, expected status.
+         */
+        return Arrays.<Object[]> asList(
+
+        new Object[] { "data", Status.OK },
+
+        new Object[] { "data/", Status.NOT_FOUND },
+
+        new Object[] { "data/require", Status.NOT_FOUND },
+
+        new Object[] { "data/require/", Status.OK },
+
+        /*
+         * sub-resource locators are not indexed.
+         */
+        new Object[] { "data/sub", Status.OK },
+
+        new Object[] { "data/sub/", Status.OK }
+
+        );
+    }
+
+    @BeforeClass
+    public static void startServer() {
+
+        /*
+         * testing with jersey and JDK HTTP server
+         */
+        final ResourceConfig config = new ResourceConfig(DataResource.class)
+                .register(new PreMatchingEnforcementFilter(RoutePolicyIndex
+                        .of(PolicyImpl.PROHIBIT, DataResource.class)));
+        JdkHttpServerFactory.createHttpServer(URI.create(BASE_URI), config);
+
+    }
+
+    private final String path;
+
+    private final Status expected;
+
+    public PreMatchingEnforcementTest(final String path,
+            final Status expected) {
+
+        this.path = path;
+        this.expected = expected;
+
+    }
+
+    @Test
+    public void testPath() {
+
+        final Response r = ClientBuilder.newClient().target(BASE_URI)
+                .path(this.path).request().get();
+        assertEquals(this.expected.getStatusCode(), r.getStatus());
+
+    }
+
+    @Path("/data")
+    @Produces("text/plain")
+    public static final class DataResource {
+
+        @GET
+        public String getData() {
+            return "data";
+        }
+
+        @Path("require")
+        @RequireTrailingSlash
+        @GET
+        public String requireSlash() {
+            return "require";
+        }
+
+        @Path("sub")
+        public SubResource sub() {
+            return new SubResource();
+        }
+
+    }
+
+    public static final class SubResource {
+
+        @GET
+        @Produces("text/plain")
+        public String get() {
+            return "sub";
+        }
+
+    }
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package fun.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.jdkhttp.JdkHttpServerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.msiops.jaxrs.trailingslash.CanonicalRedirect;
+import com.msiops.jaxrs.trailingslash.EnforcementOptions;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.ProhibitTrailingSlash;
+import com.msiops.jaxrs.trailingslash.TrailingSlashFeature;
+
+/**
+ * Check that rejected requests are redirected to their canonical form.
+ */
+@RunWith(Parameterized.class)
+public class RedirectEnforcementTest {
+
+    private static final String BASE_URI = "http://localhost:8097/";
+
+    @Parameters
+    public static Collection<Object[]> cases() {
+
+        /*
+         * requested path, canonical path. Null if the requested path is
+         * canonical.
+         */
+        return Arrays.<Object[]> asList(
+
+        new Object[] { "data", "data/" },
+
+        new Object[] { "data/", null },
+
+        new Object[] { "data/prohibit", null },
+
+        new Object[] { "data/prohibit/", "data/prohibit" }
+
+        );
+    }
+
+    @BeforeClass
+    public static void startServer() {
+
+        /*
+         * testing with jersey and JDK HTTP server
+         */
+        final ResourceConfig config = new ResourceConfig(DataResource.class)
+                .register(new TrailingSlashFeature(PolicyImpl.REQUIRE,
+                        EnforcementOptions.DEFAULTS
+                                .withRejection(CanonicalRedirect.MOVED_PERMANENTLY
+                                        .withCacheControl("public, max-age=3600"))));
+        JdkHttpServerFactory.createHttpServer(URI.create(BASE_URI), config);
+
+    }
+
+    private final String canonical;
+
+    private final String path;
+
+    public RedirectEnforcementTest(final String path, final String canonical) {
+
+        this.path = path;
+        this.canonical = canonical;
+
+    }
+
+    /**
+     * Ensure that the redirect points to the canonical path.
+     */
+    @Test
+    public void testBarePath() {
+
+        check(bareTarget(), "");
+
+    }
+
+    /**
+     * Ensure that the redirect keeps the query.
+     */
+    @Test
+    public void testPathWithQuery() {
+
+        check(bareTarget().queryParam("a", 7), "?a=7");
+
+    }
+
+    /**
+     * Ensure that following the redirect reaches the resource.
+     */
+    @Test
+    public void testFollowRedirect() {
+
+        final Response r = ClientBuilder.newClient().target(BASE_URI)
+                .path(this.path).request().get();
+
+        assertEquals(Status.OK.getStatusCode(), r.getStatus());
+
+    }
+
+    private WebTarget bareTarget() {
+        return ClientBuilder.newClient()
+                .property(ClientProperties.FOLLOW_REDIRECTS, false)
+                .target(BASE_URI).path(this.path);
+    }
+
+    private void check(final WebTarget target, final String query) {
+
+        final Response r = target.request().get();
+
+        if (this.canonical == null) {
+            assertEquals(Status.OK.getStatusCode(), r.getStatus());
+        } else {
+            assertEquals(Status.MOVED_PERMANENTLY.getStatusCode(), r.getStatus());
+            assertEquals(BASE_URI + this.canonical + query,
+                    r.getHeaderString(HttpHeaders.LOCATION));
+            assertEquals("public, max-age=3600",
+                    r.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        }
+
+    }
+
+    @Path("/data")
+    @Produces("text/plain")
+    public static final class DataResource {
+
+        @GET
+        public String getData() {
+            return "data";
+        }
+
+        @Path("prohibit")
+        @ProhibitTrailingSlash
+        @GET
+        public String prohibitSlash() {
+            return "data";
+        }
+
+    }
+
+}
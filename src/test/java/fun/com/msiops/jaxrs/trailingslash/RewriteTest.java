@@ -0,0 +1,157 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package fun.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.UriInfo;
+
+import org.glassfish.jersey.jdkhttp.JdkHttpServerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.RequireTrailingSlash;
+import com.msiops.jaxrs.trailingslash.RoutePolicyIndex;
+import com.msiops.jaxrs.trailingslash.TrailingSlashFeature;
+import com.msiops.jaxrs.trailingslash.TrailingSlashRewriteFilter;
+
+/**
+ * Check that requests are rewritten to their canonical form before matching.
+ */
+@RunWith(Parameterized.class)
+public class RewriteTest {
+
+    private static final String BASE_URI = "http://localhost:8098/";
+
+    @Parameters
+    public static Collection<Object[]> cases() {
+
+        /*
+         * requested path, path seen by the resource.
+         */
+        return Arrays.<Object[]> asList(
+
+        new Object[] { "data", "data" },
+
+        new Object[] { "data/", "data" },
+
+        new Object[] { "data//", "data" },
+
+        new Object[] { "data/require", "data/require/" },
+
+        new Object[] { "data/require/", "data/require/" }
+
+        );
+    }
+
+    @BeforeClass
+    public static void startServer() {
+
+        /*
+         * testing with jersey and JDK HTTP server
+         */
+        final ResourceConfig config = new ResourceConfig(DataResource.class)
+                .register(new TrailingSlashFeature())
+                .register(new TrailingSlashRewriteFilter(RoutePolicyIndex.of(
+                        PolicyImpl.PROHIBIT, DataResource.class)));
+        JdkHttpServerFactory.createHttpServer(URI.create(BASE_URI), config);
+
+    }
+
+    private final String path;
+
+    private final String seen;
+
+    public RewriteTest(final String path, final String seen) {
+
+        this.path = path;
+        this.seen = seen;
+
+    }
+
+    /**
+     * Ensure the request is served from its canonical form.
+     */
+    @Test
+    public void testBarePath() {
+
+        check(bareTarget(), "");
+
+    }
+
+    /**
+     * Ensure the query survives the rewrite.
+     */
+    @Test
+    public void testPathWithQuery() {
+
+        check(bareTarget().queryParam("a", 7), "?a=7");
+
+    }
+
+    private WebTarget bareTarget() {
+        return ClientBuilder.newClient().target(BASE_URI).path(this.path);
+    }
+
+    private void check(final WebTarget target, final String query) {
+        final Response r = target.request().get();
+        assertEquals(Status.OK.getStatusCode(), r.getStatus());
+        assertEquals(this.seen + query, r.readEntity(String.class));
+    }
+
+    @Path("/data")
+    @Produces("text/plain")
+    public static final class DataResource {
+
+        private static String seen(final UriInfo uriInfo) {
+            final URI u = uriInfo.getRequestUri();
+            return uriInfo.getPath()
+                    + (u.getRawQuery() == null ? "" : "?" + u.getRawQuery());
+        }
+
+        @GET
+        public String getData(@Context final UriInfo uriInfo) {
+            return seen(uriInfo);
+        }
+
+        @Path("require")
+        @RequireTrailingSlash
+        @GET
+        public String requireSlash(@Context final UriInfo uriInfo) {
+            return seen(uriInfo);
+        }
+
+    }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package fun.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.Response.Status;
+
+import org.glassfish.jersey.jdkhttp.JdkHttpServerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.msiops.jaxrs.trailingslash.AllowTrailingSlash;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.RequireTrailingSlash;
+import com.msiops.jaxrs.trailingslash.ShadowRouteStats;
+import com.msiops.jaxrs.trailingslash.ShadowTrailingSlashFeature;
+import com.msiops.jaxrs.trailingslash.TrailingSlashFeature;
+
+/**
+ * Check that a shadow policy counts would-be rejections per resource method
+ * without rejecting anything itself.
+ */
+public class ShadowEnforcementTest {
+
+    private static final String BASE_URI = "http://localhost:8100/";
+
+    private static ShadowTrailingSlashFeature shadow;
+
+    @BeforeClass
+    public static void startServer() {
+
+        /*
+         * currently allowing everything except where annotated, trying
+         * PROHIBIT as the new default.
+         */
+        shadow = new ShadowTrailingSlashFeature(PolicyImpl.PROHIBIT);
+        final ResourceConfig config = new ResourceConfig(DataResource.class)
+                .register(new TrailingSlashFeature(PolicyImpl.ALLOW))
+                .register(shadow);
+        JdkHttpServerFactory.createHttpServer(URI.create(BASE_URI), config);
+
+    }
+
+    private static int get(final String path) {
+        return ClientBuilder.newClient().target(BASE_URI).path(path)
+                .request().get().getStatus();
+    }
+
+    private static int post(final String path) {
+        return ClientBuilder.newClient().target(BASE_URI).path(path)
+                .request().post(Entity.text("item")).getStatus();
+    }
+
+    private static Map<String, ShadowRouteStats> stats() {
+        final Map<String, ShadowRouteStats> stats = new HashMap<>();
+        for (final ShadowRouteStats s : shadow.stats()) {
+            stats.put(s.route().substring(s.route().indexOf('#') + 1), s);
+        }
+        return stats;
+    }
+
+    @Test
+    public void testSameNamedMethodsCountedApart() {
+
+        assertEquals(Status.OK.getStatusCode(), get("data/item"));
+        assertEquals(Status.OK.getStatusCode(), post("data/item/"));
+        assertEquals(Status.OK.getStatusCode(), post("data/item/"));
+
+        final Map<String, ShadowRouteStats> stats = stats();
+
+        final ShadowRouteStats get = stats.get("item()");
+        assertEquals(PolicyImpl.PROHIBIT, get.policy());
+        assertEquals(1, get.evaluated());
+        assertEquals(0, get.wouldReject());
+
+        final ShadowRouteStats post = stats.get("item(java.lang.String)");
+        assertEquals(PolicyImpl.REQUIRE, post.policy());
+        assertEquals(2, post.evaluated());
+        assertEquals(0, post.wouldReject());
+
+    }
+
+    @Test
+    public void testWouldRejectCounted() {
+
+        assertEquals(Status.OK.getStatusCode(), get("data"));
+        assertEquals(Status.OK.getStatusCode(), get("data/"));
+        assertEquals(Status.OK.getStatusCode(), get("data/"));
+        assertEquals(Status.OK.getStatusCode(), get("data/static/"));
+        assertEquals(Status.OK.getStatusCode(), get("data/require/"));
+        assertEquals(Status.NOT_FOUND.getStatusCode(), get("data/require"));
+
+        final Map<String, ShadowRouteStats> stats = stats();
+
+        /*
+         * explicitly allowed methods are not tested.
+         */
+        assertFalse(stats.containsKey("getStatic()"));
+
+        final ShadowRouteStats data = stats.get("getData()");
+        assertEquals(PolicyImpl.PROHIBIT, data.policy());
+        assertEquals(3, data.evaluated());
+        assertEquals(2, data.wouldReject());
+        assertEquals(2.0 / 3, data.wouldRejectRate(), 1e-9);
+
+        /*
+         * shadow runs ahead of enforcement, so the rejected request counts.
+         */
+        final ShadowRouteStats require = stats.get("requireSlash()");
+        assertEquals(PolicyImpl.REQUIRE, require.policy());
+        assertEquals(2, require.evaluated());
+        assertEquals(1, require.wouldReject());
+
+    }
+
+    @Path("/data")
+    @Produces("text/plain")
+    public static final class DataResource {
+
+        @GET
+        public String getData() {
+            return "data";
+        }
+
+        @Path("item")
+        @GET
+        public String item() {
+            return "item";
+        }
+
+        @Path("item")
+        @RequireTrailingSlash
+        @POST
+        public String item(final String body) {
+            return body;
+        }
+
+        @Path("static")
+        @AllowTrailingSlash
+        @GET
+        public String getStatic() {
+            return "static";
+        }
+
+        @Path("require")
+        @RequireTrailingSlash
+        @GET
+        public String requireSlash() {
+            return "require";
+        }
+
+    }
+
+}
@@ -0,0 +1,268 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+
+import javax.ws.rs.container.ContainerRequestFilter;
+
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.msiops.jaxrs.trailingslash.EnforcementOptions;
+import com.msiops.jaxrs.trailingslash.GlobalTrailingSlashEnforcementFilter;
+import com.msiops.jaxrs.trailingslash.LatencyHistogram;
+import com.msiops.jaxrs.trailingslash.PathEvaluation;
+import com.msiops.jaxrs.trailingslash.PathPrefixPolicies;
+import com.msiops.jaxrs.trailingslash.Policy;
+import com.msiops.jaxrs.trailingslash.PolicyControl;
+import com.msiops.jaxrs.trailingslash.PolicyDecisionCounters;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.PreMatchingEnforcementFilter;
+import com.msiops.jaxrs.trailingslash.ProhibitTrailingSlashFilter;
+import com.msiops.jaxrs.trailingslash.RoutePolicyIndex;
+import com.msiops.jaxrs.trailingslash.TrailingSlashEnforcementFilter;
+
+/**
+ * <p>
+ * Check that a passing request is filtered without allocating. Allocation is
+ * measured with the thread allocation counter over many calls, each on a
+ * fresh Jersey request. Jersey computes request state such as the decoded
+ * path lazily, so reusing one request would hide what the filters cost the
+ * first time they look. The requests are built, and put through what routing
+ * does before the filters run, ahead of the measurement.
+ * </p>
+ *
+ * <p>
+ * A request property holding the injected policy is written once per request
+ * and costs a map entry. That is the container's price for
+ * {@link ContainerRequestFilter} state, so injection is measured on a request
+ * that already holds the property.
+ * </p>
+ *
+ * <p>
+ * Built-in policies are tested on the raw path under every path evaluation.
+ * A custom policy under the default, decoded evaluation is included to show
+ * that the measurement sees the decoded path when it is computed.
+ * </p>
+ */
+@RunWith(Parameterized.class)
+public class AllocationFreePassTest {
+
+    private static final URI BASE = URI.create("http://localhost/app/");
+
+    private static final int CALLS = 10000;
+
+    /**
+     * Policy that is not built in, so it gets the decoded path by default.
+     */
+    private static final Policy CUSTOM = path -> !path.endsWith("/");
+
+    private static final int WARMUP_ROUNDS = 5;
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> cases() {
+
+        final EnforcementOptions observed = EnforcementOptions.DEFAULTS
+                .withListener(new PolicyDecisionCounters())
+                .withLatencyHistogram(new LatencyHistogram());
+
+        /*
+         * description, filter chain, request path, whether it allocates.
+         */
+        return Arrays.asList(new Object[][] {
+                { "default", chain(new TrailingSlashEnforcementFilter()),
+                        "data", false },
+                { "default encoded",
+                        chain(new TrailingSlashEnforcementFilter()),
+                        "caf%C3%A9/x", false },
+                {
+                        "raw literal encoded",
+                        chain(new TrailingSlashEnforcementFilter(
+                                PathEvaluation.RAW_LITERAL)), "caf%C3%A9%2F",
+                        false },
+                {
+                        "decoded",
+                        chain(new TrailingSlashEnforcementFilter(
+                                PathEvaluation.DECODED)), "data", false },
+                {
+                        "custom policy",
+                        chain(new GlobalTrailingSlashEnforcementFilter(
+                                CUSTOM)), "data", false },
+                {
+                        "custom policy encoded",
+                        chain(new GlobalTrailingSlashEnforcementFilter(
+                                CUSTOM)), "caf%C3%A9/x", true },
+                {
+                        "custom policy raw encoded",
+                        chain(new GlobalTrailingSlashEnforcementFilter(
+                                CUSTOM, PathEvaluation.RAW)), "caf%C3%A9/x",
+                        false },
+                {
+                        "injected",
+                        chain(new ProhibitTrailingSlashFilter(),
+                                new TrailingSlashEnforcementFilter()),
+                        "caf%C3%A9/x", false },
+                {
+                        "prefix rules",
+                        chain(new TrailingSlashEnforcementFilter(
+                                PathPrefixPolicies.builder()
+                                        .rule("/data/**", PolicyImpl.REQUIRE)
+                                        .rule("/data", PolicyImpl.PROHIBIT)
+                                        .build())), "data/x/", false },
+                {
+                        "controlled default",
+                        chain(new TrailingSlashEnforcementFilter(
+                                new PolicyControl(PolicyImpl.REQUIRE),
+                                EnforcementOptions.DEFAULTS)), "data/", false },
+                {
+                        "listener and histogram",
+                        chain(new TrailingSlashEnforcementFilter(observed)),
+                        "caf%C3%A9/x", false },
+                {
+                        "pre-matching",
+                        chain(new PreMatchingEnforcementFilter(
+                                RoutePolicyIndex.builder()
+                                        .route("data/{id}", "GET",
+                                                PolicyImpl.REQUIRE).build())),
+                        "data/1/", false } });
+
+    }
+
+    private static ContainerRequestFilter[] chain(
+            final ContainerRequestFilter... filters) {
+        return filters;
+    }
+
+    private final boolean allocates;
+
+    private final ContainerRequestFilter[] filters;
+
+    private final String path;
+
+    private com.sun.management.ThreadMXBean threads;
+
+    public AllocationFreePassTest(final String description,
+            final ContainerRequestFilter[] filters, final String path,
+            final boolean allocates) {
+        this.filters = filters;
+        this.path = path;
+        this.allocates = allocates;
+    }
+
+    @Before
+    public void setup() {
+
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof
+                com.sun.management.ThreadMXBean);
+        this.threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        Assume.assumeTrue(this.threads.isThreadAllocatedMemorySupported());
+        this.threads.setThreadAllocatedMemoryEnabled(true);
+
+    }
+
+    @Test
+    public void testAllocation() throws IOException {
+
+        for (int i = 0; i < WARMUP_ROUNDS; ++i) {
+            measure();
+        }
+
+        final long allocated = measure();
+
+        /*
+         * the smallest object is 16 bytes, so anything allocated per call
+         * exceeds this by far.
+         */
+        final String message = "allocated " + allocated + " bytes in "
+                + CALLS + " calls";
+        if (this.allocates) {
+            assertTrue(message, allocated >= CALLS);
+        } else {
+            assertTrue(message, allocated < CALLS);
+        }
+
+    }
+
+    /**
+     * Run the filters once on each of {@link #CALLS} fresh requests.
+     *
+     * @return bytes allocated by the filters, less the cost of reading the
+     *         allocation counter.
+     */
+    private long measure() throws IOException {
+
+        final ContainerRequest[] requests = new ContainerRequest[CALLS];
+        for (int i = 0; i < CALLS; ++i) {
+            requests[i] = request();
+        }
+
+        final long id = Thread.currentThread().getId();
+
+        /*
+         * reading the counter may itself allocate. Measure that and take it
+         * off.
+         */
+        final long r0 = this.threads.getThreadAllocatedBytes(id);
+        final long r1 = this.threads.getThreadAllocatedBytes(id);
+
+        for (final ContainerRequest request : requests) {
+            for (final ContainerRequestFilter f : this.filters) {
+                f.filter(request);
+            }
+        }
+        final long r2 = this.threads.getThreadAllocatedBytes(id);
+
+        for (final ContainerRequest request : requests) {
+            assertNull(request.getAbortResponse());
+        }
+
+        return r2 - r1 - (r1 - r0);
+
+    }
+
+    /**
+     * Build a request as the container would hand it to the filters. Routing
+     * matches on the undecoded path, and an injected policy property is
+     * already present so that setting it only replaces the value.
+     */
+    private ContainerRequest request() {
+        final ContainerRequest request = new ContainerRequest(BASE,
+                BASE.resolve(this.path), "GET", null,
+                new MapPropertiesDelegate());
+        request.getPath(false);
+        if (this.filters[0] instanceof ProhibitTrailingSlashFilter) {
+            request.setProperty(TrailingSlashEnforcementFilter.REQUEST_KEY,
+                    PolicyImpl.PROHIBIT);
+        }
+        return request;
+    }
+
+}
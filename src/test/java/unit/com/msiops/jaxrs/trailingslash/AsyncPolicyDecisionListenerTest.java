@@ -0,0 +1,196 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.UriInfo;
+
+import org.junit.Test;
+
+import com.msiops.jaxrs.trailingslash.AsyncPolicyDecisionListener;
+import com.msiops.jaxrs.trailingslash.PolicyDecision;
+import com.msiops.jaxrs.trailingslash.PolicyDecisionBatchListener;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.PolicySource;
+
+/**
+ * Check asynchronous decision delivery.
+ */
+public class AsyncPolicyDecisionListenerTest {
+
+    private static ContainerRequestContext request(final String path) {
+        final ContainerRequestContext mreq = mock(ContainerRequestContext.class);
+        final UriInfo muii = mock(UriInfo.class);
+        when(mreq.getMethod()).thenReturn("GET");
+        when(mreq.getUriInfo()).thenReturn(muii);
+        when(muii.getRequestUri()).thenReturn(URI.create("http://h" + path));
+        return mreq;
+    }
+
+    @Test
+    public void testDecisionsDelivered() throws Exception {
+
+        final List<String> seen = new ArrayList<>();
+        final AsyncPolicyDecisionListener listener = new AsyncPolicyDecisionListener(
+                (d, end) -> seen.add(d.method() + " " + d.rawPath() + " "
+                        + d.policy() + " " + d.source() + " " + d.passed()),
+                4);
+
+        final ContainerRequestContext bare = request("/a");
+        final ContainerRequestContext slash = request("/a/");
+        for (int i = 0; i < 100; ++i) {
+            listener.onDecision(i % 2 == 0 ? bare : slash, PolicyImpl.REQUIRE,
+                    PolicySource.RESOURCE, i % 2 != 0);
+        }
+        listener.close();
+
+        assertEquals(100, seen.size() + listener.dropped());
+        for (final String s : seen) {
+            assertTrue(s, s.equals("GET /a REQUIRE RESOURCE false")
+                    || s.equals("GET /a/ REQUIRE RESOURCE true"));
+        }
+
+    }
+
+    @Test
+    public void testDropOnFull() throws Exception {
+
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicLong delivered = new AtomicLong();
+        final AsyncPolicyDecisionListener listener = new AsyncPolicyDecisionListener(
+                (d, end) -> {
+                    blocked.countDown();
+                    try {
+                        release.await();
+                    } catch (final InterruptedException x) {
+                        throw new AssertionError(x);
+                    }
+                    delivered.incrementAndGet();
+                }, 3);
+
+        final ContainerRequestContext req = request("/a");
+        listener.onDecision(req, PolicyImpl.ALLOW, PolicySource.DEFAULT, true);
+        blocked.await();
+
+        /*
+         * consumer holds the first slot. Capacity rounds up to 4, so three
+         * more fit and the rest are dropped.
+         */
+        for (int i = 0; i < 10; ++i) {
+            listener.onDecision(req, PolicyImpl.ALLOW, PolicySource.DEFAULT,
+                    true);
+        }
+        assertEquals(7, listener.dropped());
+
+        release.countDown();
+        listener.close();
+        assertEquals(4, delivered.get());
+
+    }
+
+    @Test
+    public void testWaitOnFullLosesNothing() throws Exception {
+
+        final AtomicLong delivered = new AtomicLong();
+        final AtomicLong batches = new AtomicLong();
+        final PolicyDecisionBatchListener consumer = (d, end) -> {
+            delivered.incrementAndGet();
+            if (end) {
+                batches.incrementAndGet();
+            }
+        };
+        final AsyncPolicyDecisionListener listener = new AsyncPolicyDecisionListener(
+                consumer, 16, false);
+
+        final ContainerRequestContext req = request("/a");
+        final Thread[] producers = new Thread[4];
+        for (int t = 0; t < producers.length; ++t) {
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; ++i) {
+                    listener.onDecision(req, PolicyImpl.PROHIBIT,
+                            PolicySource.PREFIX, false);
+                }
+            });
+            producers[t].start();
+        }
+        for (final Thread t : producers) {
+            t.join();
+        }
+        listener.close();
+
+        assertEquals(0, listener.dropped());
+        assertEquals(40000, delivered.get());
+        assertTrue(batches.get() > 0);
+
+    }
+
+    @Test
+    public void testCloseRacingProducersLosesNothing() throws Exception {
+
+        for (int round = 0; round < 20; ++round) {
+
+            final AtomicLong delivered = new AtomicLong();
+            final AsyncPolicyDecisionListener listener = new AsyncPolicyDecisionListener(
+                    (d, end) -> delivered.incrementAndGet(), 64);
+
+            final ContainerRequestContext req = request("/a");
+            final Thread[] producers = new Thread[4];
+            for (int t = 0; t < producers.length; ++t) {
+                producers[t] = new Thread(() -> {
+                    for (int i = 0; i < 5000; ++i) {
+                        listener.onDecision(req, PolicyImpl.PROHIBIT,
+                                PolicySource.PREFIX, false);
+                    }
+                });
+                producers[t].start();
+            }
+            listener.close();
+            for (final Thread t : producers) {
+                t.join();
+            }
+
+            assertEquals(20000, delivered.get() + listener.dropped());
+
+        }
+
+    }
+
+    @Test
+    public void testClosedListenerDrops() throws Exception {
+
+        final AsyncPolicyDecisionListener listener = new AsyncPolicyDecisionListener(
+                (final PolicyDecision d, final boolean end) -> fail(), 8);
+        listener.close();
+
+        listener.onDecision(request("/a"), PolicyImpl.ALLOW,
+                PolicySource.DEFAULT, true);
+
+        assertEquals(1, listener.dropped());
+
+    }
+
+}
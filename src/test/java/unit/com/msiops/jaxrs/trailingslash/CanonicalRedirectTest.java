@@ -0,0 +1,179 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.msiops.jaxrs.trailingslash.CanonicalRedirect;
+import com.msiops.jaxrs.trailingslash.PathEvaluation;
+import com.msiops.jaxrs.trailingslash.Policy;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+
+/**
+ * Check redirect locations.
+ */
+@RunWith(Parameterized.class)
+public class CanonicalRedirectTest {
+
+    @Parameters
+    public static Collection<Object[]> cases() {
+
+        /*
+         * rejecting policy, request URI, expected location, expected location
+         * where an encoded slash is path data.
+         */
+        return Arrays.asList(new Object[][] {
+                { PolicyImpl.REQUIRE, "http://h:8080/app/data",
+                        "http://h:8080/app/data/", "http://h:8080/app/data/" },
+                { PolicyImpl.REQUIRE, "http://h/app/data?a=1&b=%20",
+                        "http://h/app/data/?a=1&b=%20",
+                        "http://h/app/data/?a=1&b=%20" },
+                { PolicyImpl.REQUIRE, "http://h/caf%C3%A9",
+                        "http://h/caf%C3%A9/", "http://h/caf%C3%A9/" },
+                { PolicyImpl.REQUIRE, "http://h/app/data%2F",
+                        "http://h/app/data%2F/", "http://h/app/data%2F/" },
+                { PolicyImpl.PROHIBIT, "http://h/app/data/",
+                        "http://h/app/data", "http://h/app/data" },
+                { PolicyImpl.PROHIBIT, "http://h/app/data//?q",
+                        "http://h/app/data?q", "http://h/app/data?q" },
+                { PolicyImpl.PROHIBIT, "http://h/app/data%2F",
+                        "http://h/app/data", "http://h/app/data%2F" },
+                { PolicyImpl.PROHIBIT, "http://h/app/data%2F/",
+                        "http://h/app/data", "http://h/app/data%2F" },
+                { PolicyImpl.PROHIBIT, "http://h/app/data/%2f/",
+                        "http://h/app/data", "http://h/app/data/%2f" },
+                { PolicyImpl.PROHIBIT, "http://h//", "http://h/",
+                        "http://h/" } });
+
+    }
+
+    private final String expected;
+
+    private final String expectedLiteral;
+
+    private final Policy policy;
+
+    private final String requestUri;
+
+    public CanonicalRedirectTest(final Policy policy, final String requestUri,
+            final String expected, final String expectedLiteral) {
+        this.policy = policy;
+        this.requestUri = requestUri;
+        this.expected = expected;
+        this.expectedLiteral = expectedLiteral;
+    }
+
+    @Test
+    public void testLocation() {
+
+        final Response r = CanonicalRedirect.PERMANENT_REDIRECT.response(
+                request(), this.policy);
+
+        assertEquals(308, r.getStatus());
+        assertEquals(this.expected, r.getHeaderString(HttpHeaders.LOCATION));
+
+    }
+
+    @Test
+    public void testLocationByPathEvaluation() {
+
+        assertEquals(this.expected, CanonicalRedirect.PERMANENT_REDIRECT
+                .response(request(), this.policy, PathEvaluation.RAW)
+                .getHeaderString(HttpHeaders.LOCATION));
+        assertEquals(this.expected, CanonicalRedirect.PERMANENT_REDIRECT
+                .response(request(), this.policy, PathEvaluation.DECODED)
+                .getHeaderString(HttpHeaders.LOCATION));
+        assertEquals(this.expectedLiteral,
+                CanonicalRedirect.PERMANENT_REDIRECT
+                        .response(request(), this.policy,
+                                PathEvaluation.RAW_LITERAL)
+                        .getHeaderString(HttpHeaders.LOCATION));
+
+    }
+
+    @Test
+    public void testLocationWithBase() {
+
+        final Response r = CanonicalRedirect.MOVED_PERMANENTLY.withBase(
+                URI.create("https://www.example.com/ignored")).response(
+                request(), this.policy);
+
+        assertEquals(301, r.getStatus());
+        assertEquals(
+                this.expected.replaceFirst("^http://[^/]*",
+                        "https://www.example.com"),
+                r.getHeaderString(HttpHeaders.LOCATION));
+
+    }
+
+    @Test
+    public void testCacheHeaders() {
+
+        final Response r = CanonicalRedirect.PERMANENT_REDIRECT
+                .withCacheControl("public, max-age=3600")
+                .withHeader(HttpHeaders.VARY, "Accept-Encoding")
+                .response(request(), this.policy);
+
+        assertEquals(this.expected, r.getHeaderString(HttpHeaders.LOCATION));
+        assertEquals("public, max-age=3600",
+                r.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        assertEquals("Accept-Encoding", r.getHeaderString(HttpHeaders.VARY));
+
+    }
+
+    @Test
+    public void testFallback() {
+
+        final Response r = CanonicalRedirect.PERMANENT_REDIRECT.response(
+                request(), s -> false);
+
+        assertEquals(404, r.getStatus());
+        assertNull(r.getHeaderString(HttpHeaders.LOCATION));
+
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotARedirection() {
+
+        CanonicalRedirect.of(404);
+
+    }
+
+    private ContainerRequestContext request() {
+        final ContainerRequestContext mreq = mock(ContainerRequestContext.class);
+        final UriInfo muii = mock(UriInfo.class);
+        when(mreq.getUriInfo()).thenReturn(muii);
+        when(muii.getRequestUri()).thenReturn(URI.create(this.requestUri));
+        return mreq;
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.mockito.Mockito.*;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+
+import org.junit.Test;
+
+import com.msiops.jaxrs.trailingslash.AllowTrailingSlash;
+import com.msiops.jaxrs.trailingslash.RequireTrailingSlash;
+import com.msiops.jaxrs.trailingslash.TrailingSlashFeature;
+
+/**
+ * Check that conflicting static configuration is refused at deployment.
+ */
+public class ConflictingAnnotationTest {
+
+    @Test(expected = IllegalStateException.class)
+    public void testConflictOnMethod() throws Exception {
+
+        configure(Conflicted.class, "both");
+
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testConflictOnClass() throws Exception {
+
+        configure(ConflictedClass.class, "plain");
+
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testOverlappingRestrictions() throws Exception {
+
+        configure(Conflicted.class, "overlapping");
+
+    }
+
+    @Test
+    public void testDisjointRestrictions() throws Exception {
+
+        configure(Conflicted.class, "disjoint");
+
+    }
+
+    private void configure(final Class<?> resourceClass, final String method)
+            throws Exception {
+        final ResourceInfo mrinf = mock(ResourceInfo.class);
+        doReturn(resourceClass).when(mrinf).getResourceClass();
+        when(mrinf.getResourceMethod()).thenReturn(
+                resourceClass.getMethod(method));
+        new TrailingSlashFeature().configure(mrinf, mock(FeatureContext.class));
+    }
+
+    public static final class Conflicted {
+
+        @AllowTrailingSlash
+        @RequireTrailingSlash
+        public void both() {
+        }
+
+        @GET
+        @AllowTrailingSlash(methods = HttpMethod.GET)
+        @RequireTrailingSlash
+        public void disjoint() {
+        }
+
+        @GET
+        @AllowTrailingSlash(methods = HttpMethod.GET)
+        @RequireTrailingSlash(methods = { HttpMethod.POST, HttpMethod.GET })
+        public void overlapping() {
+        }
+
+    }
+
+    @AllowTrailingSlash
+    @RequireTrailingSlash
+    public static final class ConflictedClass {
+
+        public void plain() {
+        }
+
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.msiops.jaxrs.trailingslash.GlobalTrailingSlashEnforcementFilter;
+import com.msiops.jaxrs.trailingslash.Policy;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.TrailingSlashEnforcementFilter;
+
+/**
+ * Check global enforcement and its precedence below injected policy.
+ */
+@RunWith(Parameterized.class)
+public class GlobalPolicyEnforcementTest {
+
+    /**
+     * Custom policy that passes only an application-relative path, which
+     * custom policies get by default.
+     */
+    private static final Policy RELATIVE = path -> !path.startsWith("/");
+
+    @Parameters
+    public static Collection<Object[]> cases() {
+
+        /*
+         * global policy, injected policy (or null), path, expected pass.
+         */
+        return Arrays.asList(new Object[][] {
+                { PolicyImpl.REQUIRE, null, "resource", false },
+                { PolicyImpl.REQUIRE, null, "resource/", true },
+                { PolicyImpl.PROHIBIT, null, "resource", true },
+                { PolicyImpl.PROHIBIT, null, "resource/", false },
+                { PolicyImpl.ALLOW, null, "resource/", true },
+                { PolicyImpl.REQUIRE, PolicyImpl.PROHIBIT, "resource", true },
+                { PolicyImpl.REQUIRE, PolicyImpl.PROHIBIT, "resource/", false },
+                { PolicyImpl.REQUIRE, PolicyImpl.ALLOW, "resource", true },
+                { PolicyImpl.PROHIBIT, PolicyImpl.REQUIRE, "resource", false },
+                { RELATIVE, null, "resource", true } });
+
+    }
+
+    private final boolean expected;
+
+    private final Policy global;
+
+    private final Policy injected;
+
+    private ContainerRequestContext mreq;
+
+    private final String path;
+
+    public GlobalPolicyEnforcementTest(final Policy global,
+            final Policy injected, final String path, final boolean expected) {
+        this.global = global;
+        this.injected = injected;
+        this.path = path;
+        this.expected = expected;
+    }
+
+    @Before
+    public void setUp() {
+        this.mreq = mock(ContainerRequestContext.class);
+        final UriInfo muii = mock(UriInfo.class);
+        when(this.mreq.getUriInfo()).thenReturn(muii);
+        when(muii.getPath()).thenReturn(this.path);
+        when(muii.getBaseUri()).thenReturn(URI.create("http://h/"));
+        when(muii.getRequestUri()).thenReturn(URI.create("http://h/" + this.path));
+        when(this.mreq.getProperty(TrailingSlashEnforcementFilter.REQUEST_KEY))
+                .thenReturn(this.injected);
+    }
+
+    @Test
+    public void testPass() throws Exception {
+
+        final ContainerRequestFilter filter = new GlobalTrailingSlashEnforcementFilter(
+                this.global);
+
+        filter.filter(this.mreq);
+
+        verify(this.mreq, times(this.expected ? 0 : 1)).abortWith(
+                (Response) any());
+        verify(this.mreq, never()).setProperty(anyString(), any());
+
+    }
+
+}
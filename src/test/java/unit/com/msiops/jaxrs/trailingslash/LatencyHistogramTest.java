@@ -0,0 +1,131 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.net.URI;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.UriInfo;
+
+import org.junit.Test;
+
+import com.msiops.jaxrs.trailingslash.EnforcementOptions;
+import com.msiops.jaxrs.trailingslash.LatencyHistogram;
+import com.msiops.jaxrs.trailingslash.TrailingSlashEnforcementFilter;
+
+/**
+ * Check latency recording and percentiles.
+ */
+public class LatencyHistogramTest {
+
+    private static void assertNear(final long expected, final long actual) {
+        assertTrue("expected about " + expected + " but was " + actual,
+                Math.abs(actual - expected) <= expected / 64 + 1);
+    }
+
+    @Test
+    public void testPercentiles() {
+
+        final LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 100000; ++v) {
+            h.record(v);
+        }
+
+        final LatencyHistogram.Snapshot s = h.snapshot();
+        assertEquals(100000, s.count());
+        assertEquals(100000, s.max());
+        assertNear(50000, s.p50());
+        assertNear(99000, s.p99());
+        assertNear(99900, s.p999());
+        assertEquals(1, s.valueAt(0));
+        assertEquals(100000, s.valueAt(1));
+
+    }
+
+    @Test
+    public void testSmallValuesExact() {
+
+        final LatencyHistogram h = new LatencyHistogram();
+        h.record(3);
+        h.record(7);
+        h.record(-5);
+
+        final LatencyHistogram.Snapshot s = h.snapshot();
+        assertEquals(0, s.valueAt(0));
+        assertEquals(3, s.p50());
+        assertEquals(7, s.p999());
+
+    }
+
+    @Test
+    public void testHugeValueClamped() {
+
+        final LatencyHistogram h = new LatencyHistogram();
+        h.record(Long.MAX_VALUE);
+
+        final LatencyHistogram.Snapshot s = h.snapshot();
+        assertEquals(1, s.count());
+        assertEquals(s.max(), s.p50());
+        assertTrue(s.max() > 60_000_000_000L);
+
+    }
+
+    @Test
+    public void testEmptyAndReset() {
+
+        final LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.snapshot().p99());
+
+        h.record(1000);
+        h.reset();
+
+        assertEquals(0, h.snapshot().count());
+        assertEquals(0, h.snapshot().max());
+
+    }
+
+    @Test
+    public void testFilterCallsRecorded() throws Exception {
+
+        final LatencyHistogram h = new LatencyHistogram();
+        final TrailingSlashEnforcementFilter filter = new TrailingSlashEnforcementFilter(
+                EnforcementOptions.DEFAULTS.withLatencyHistogram(h));
+        final ContainerRequestContext mreq = mock(ContainerRequestContext.class);
+        final UriInfo muii = mock(UriInfo.class);
+        when(mreq.getUriInfo()).thenReturn(muii);
+        when(muii.getPath()).thenReturn("resource/");
+        when(muii.getBaseUri()).thenReturn(URI.create("http://h/"));
+        when(muii.getRequestUri()).thenReturn(URI.create("http://h/resource/"));
+
+        filter.filter(mreq);
+        filter.filter(mreq);
+
+        assertEquals(2, h.snapshot().count());
+
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadSampleInterval() {
+
+        new LatencyHistogram(0);
+
+    }
+
+}
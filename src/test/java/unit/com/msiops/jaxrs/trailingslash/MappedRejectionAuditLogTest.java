@@ -0,0 +1,306 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.UriInfo;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.msiops.jaxrs.trailingslash.MappedRejectionAuditLog;
+import com.msiops.jaxrs.trailingslash.MappedRejectionAuditLogReader;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.PolicySource;
+
+/**
+ * Check rejection recording and decoding.
+ */
+public class MappedRejectionAuditLogTest {
+
+    private static ContainerRequestContext request(final String method,
+            final String path) {
+        final ContainerRequestContext mreq = mock(ContainerRequestContext.class);
+        final UriInfo muii = mock(UriInfo.class);
+        when(mreq.getMethod()).thenReturn(method);
+        when(mreq.getUriInfo()).thenReturn(muii);
+        when(muii.getRequestUri()).thenReturn(URI.create("http://h" + path));
+        return mreq;
+    }
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        this.file = this.tmp.getRoot().toPath().resolve("audit.log");
+    }
+
+    @Test
+    public void testRejectionsRecorded() throws IOException {
+
+        try (MappedRejectionAuditLog log = new MappedRejectionAuditLog(
+                this.file, 8)) {
+            log.onDecision(request("GET", "/app/a/"), PolicyImpl.PROHIBIT,
+                    PolicySource.DEFAULT, false);
+            log.onDecision(request("GET", "/app/b"), PolicyImpl.PROHIBIT,
+                    PolicySource.DEFAULT, true);
+            log.onDecision(request("POST", "/app/caf%C3%A9"),
+                    PolicyImpl.REQUIRE, PolicySource.RESOURCE, false);
+        }
+
+        final List<String> lines = read();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0),
+                lines.get(0).endsWith(" GET PROHIBIT DEFAULT /app/a/"));
+        assertTrue(lines.get(1), lines.get(1).endsWith(
+                " POST REQUIRE RESOURCE /app/caf%C3%A9"));
+
+    }
+
+    @Test
+    public void testOldestReplaced() throws IOException {
+
+        try (MappedRejectionAuditLog log = new MappedRejectionAuditLog(
+                this.file, 3)) {
+            for (int i = 0; i < 7; ++i) {
+                log.onDecision(request("GET", "/r" + i), PolicyImpl.REQUIRE,
+                        PolicySource.PREFIX, false);
+            }
+        }
+
+        final List<String> lines = read();
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).endsWith(" /r4"));
+        assertTrue(lines.get(1).endsWith(" /r5"));
+        assertTrue(lines.get(2).endsWith(" /r6"));
+
+    }
+
+    @Test
+    public void testReopenContinues() throws IOException {
+
+        try (MappedRejectionAuditLog log = new MappedRejectionAuditLog(
+                this.file, 4)) {
+            log.onDecision(request("GET", "/first"), PolicyImpl.REQUIRE,
+                    PolicySource.PREFIX, false);
+        }
+        try (MappedRejectionAuditLog log = new MappedRejectionAuditLog(
+                this.file, 4)) {
+            log.onDecision(request("GET", "/second"), PolicyImpl.REQUIRE,
+                    PolicySource.PREFIX, false);
+        }
+
+        final List<String> lines = read();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).endsWith(" /first"));
+        assertTrue(lines.get(1).endsWith(" /second"));
+
+    }
+
+    @Test
+    public void testLongPathTruncated() throws IOException {
+
+        final char[] segment = new char[300];
+        Arrays.fill(segment, 'x');
+        try (MappedRejectionAuditLog log = new MappedRejectionAuditLog(
+                this.file, 2, 128)) {
+            log.onDecision(request("GET", "/" + new String(segment)),
+                    PolicyImpl.PROHIBIT, PolicySource.GLOBAL, false);
+        }
+
+        final String line = read().get(0);
+        assertTrue(line, line.endsWith("xxx..."));
+
+    }
+
+    @Test
+    public void testCorruptSlotSkipped() throws IOException {
+
+        try (MappedRejectionAuditLog log = new MappedRejectionAuditLog(
+                this.file, 4)) {
+            log.onDecision(request("GET", "/good"), PolicyImpl.REQUIRE,
+                    PolicySource.PREFIX, false);
+            log.onDecision(request("GET", "/bad"), PolicyImpl.REQUIRE,
+                    PolicySource.PREFIX, false);
+        }
+
+        /*
+         * method length byte of the second slot, as if damaged.
+         */
+        try (FileChannel ch = FileChannel.open(this.file,
+                StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[] { (byte) 0xff }),
+                    64 + 256 + 17);
+        }
+
+        final List<String> lines = read();
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).endsWith(" /good"));
+
+    }
+
+    @Test
+    public void testConcurrentWritersWrapping() throws Exception {
+
+        final int perThread = 20000;
+        final Thread[] threads = new Thread[4];
+        final long dropped;
+        try (MappedRejectionAuditLog log = new MappedRejectionAuditLog(
+                this.file, 3)) {
+            for (int t = 0; t < threads.length; ++t) {
+                final ContainerRequestContext req = request("GET", "/thread"
+                        + t + "/" + t);
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < perThread; ++i) {
+                        log.onDecision(req, PolicyImpl.REQUIRE,
+                                PolicySource.PREFIX, false);
+                    }
+                });
+                threads[t].start();
+            }
+            for (final Thread t : threads) {
+                t.join();
+            }
+            dropped = log.dropped();
+        }
+
+        /*
+         * every record is whole: its path matches itself.
+         */
+        final List<String> lines = read();
+        assertEquals(3, lines.size());
+        for (final String line : lines) {
+            assertTrue(line,
+                    line.matches(".* GET REQUIRE PREFIX /thread(\\d)/\\1"));
+        }
+        assertTrue(dropped < threads.length * perThread);
+
+    }
+
+    @Test
+    public void testLiveDumpSeesWholeRecords() throws Exception {
+
+        final AtomicBoolean stop = new AtomicBoolean();
+        final Thread[] threads = new Thread[3];
+        try (MappedRejectionAuditLog log = new MappedRejectionAuditLog(
+                this.file, 4)) {
+            for (int t = 0; t < threads.length; ++t) {
+                final ContainerRequestContext req = request("GET", "/thread"
+                        + t + "/" + t);
+                threads[t] = new Thread(() -> {
+                    while (!stop.get()) {
+                        log.onDecision(req, PolicyImpl.REQUIRE,
+                                PolicySource.PREFIX, false);
+                    }
+                });
+                threads[t].start();
+            }
+            try {
+                for (int i = 0; i < 2000; ++i) {
+                    final StringBuilder b = new StringBuilder();
+                    log.dump(b);
+                    for (final String line : b.toString().split("\n")) {
+                        assertTrue(line, line.isEmpty()
+                                || line.matches(".* GET REQUIRE PREFIX "
+                                        + "/thread(\\d)/\\1"));
+                    }
+                }
+            } finally {
+                stop.set(true);
+                for (final Thread t : threads) {
+                    t.join();
+                }
+            }
+        }
+
+    }
+
+    @Test
+    public void testCloseWaitsForWriters() throws Exception {
+
+        final AtomicBoolean stop = new AtomicBoolean();
+        final Thread[] threads = new Thread[3];
+        final MappedRejectionAuditLog log = new MappedRejectionAuditLog(
+                this.file, 4);
+        for (int t = 0; t < threads.length; ++t) {
+            final ContainerRequestContext req = request("GET", "/thread" + t
+                    + "/" + t);
+            threads[t] = new Thread(() -> {
+                while (!stop.get()) {
+                    log.onDecision(req, PolicyImpl.REQUIRE,
+                            PolicySource.PREFIX, false);
+                }
+            });
+            threads[t].start();
+        }
+        Thread.sleep(50);
+        log.close();
+
+        /*
+         * nothing reaches the file once closed, though writers go on.
+         */
+        final List<String> closed = read();
+        Thread.sleep(50);
+        stop.set(true);
+        for (final Thread t : threads) {
+            t.join();
+        }
+        assertEquals(closed, read());
+        for (final String line : closed) {
+            assertTrue(line,
+                    line.matches(".* GET REQUIRE PREFIX /thread(\\d)/\\1"));
+        }
+        final StringBuilder b = new StringBuilder();
+        log.dump(b);
+        assertEquals(closed, Arrays.asList(b.toString().split("\n")));
+
+    }
+
+    @Test(expected = IOException.class)
+    public void testLayoutMismatchRejected() throws IOException {
+
+        new MappedRejectionAuditLog(this.file, 4).close();
+        new MappedRejectionAuditLog(this.file, 5);
+
+    }
+
+    private List<String> read() throws IOException {
+        final StringBuilder b = new StringBuilder();
+        MappedRejectionAuditLogReader.dump(this.file, b);
+        return b.length() == 0 ? Arrays.<String> asList() : Arrays.asList(b
+                .toString().split("\n"));
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.msiops.jaxrs.trailingslash.PathPrefixPolicies;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+
+/**
+ * Check path prefix policy lookup.
+ */
+@RunWith(Parameterized.class)
+public class PathPrefixPoliciesTest {
+
+    private static final PathPrefixPolicies RULES = PathPrefixPolicies
+            .builder().rule("/api/**", PolicyImpl.PROHIBIT)
+            .rule("/api/v1/collections/**", PolicyImpl.REQUIRE)
+            .rule("/api/v1/collections/flat", PolicyImpl.PROHIBIT)
+            .rule("static/**", PolicyImpl.ALLOW)
+            .rule("/health/", PolicyImpl.REQUIRE)
+            .rule("/caf%C3%A9/**", PolicyImpl.ALLOW).build();
+
+    @Parameters
+    public static Collection<Object[]> cases() {
+
+        /*
+         * raw relative path, expected policy (null if no rule applies).
+         */
+        return Arrays.asList(new Object[][] {
+                { "api", PolicyImpl.PROHIBIT },
+                { "api/", PolicyImpl.PROHIBIT },
+                { "/api/users/7", PolicyImpl.PROHIBIT },
+                { "apix", null },
+                { "ap", null },
+                { "api/v1/collections", PolicyImpl.REQUIRE },
+                { "api/v1/collections/", PolicyImpl.REQUIRE },
+                { "api/v1/collections/books/12", PolicyImpl.REQUIRE },
+                { "api/v1/collectionsx", PolicyImpl.PROHIBIT },
+                { "api/v1/collections/flat", PolicyImpl.PROHIBIT },
+                { "api/v1/collections/flat/", PolicyImpl.PROHIBIT },
+                { "api/v1/collections/flat/x", PolicyImpl.REQUIRE },
+                { "static/css/site.css", PolicyImpl.ALLOW },
+                { "health", PolicyImpl.REQUIRE },
+                { "health/", PolicyImpl.REQUIRE },
+                { "health/deep", null },
+                { "caf%C3%A9/menu", PolicyImpl.ALLOW },
+                { "other", null },
+                { "", null } });
+
+    }
+
+    private final PolicyImpl expected;
+
+    private final String path;
+
+    public PathPrefixPoliciesTest(final String path, final PolicyImpl expected) {
+        this.path = path;
+        this.expected = expected;
+    }
+
+    @Test
+    public void testLookup() {
+
+        assertEquals(this.expected, RULES.lookup(this.path));
+
+    }
+
+    /**
+     * Ensure a catch-all rule applies where no longer rule does.
+     */
+    @Test
+    public void testCatchAll() {
+
+        final PathPrefixPolicies rules = PathPrefixPolicies.builder()
+                .rule("/**", PolicyImpl.REQUIRE)
+                .rule("/static/**", PolicyImpl.ALLOW).build();
+
+        assertEquals(PolicyImpl.REQUIRE, rules.lookup(""));
+        assertEquals(PolicyImpl.REQUIRE, rules.lookup("other/x"));
+        assertEquals(PolicyImpl.ALLOW, rules.lookup("static/x"));
+
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConflictingRulesRejected() {
+
+        PathPrefixPolicies.builder().rule("/a/**", PolicyImpl.REQUIRE)
+                .rule("a/**", PolicyImpl.PROHIBIT);
+
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInnerWildcardRejected() {
+
+        PathPrefixPolicies.builder().rule("/a/*/b", PolicyImpl.REQUIRE);
+
+    }
+
+}
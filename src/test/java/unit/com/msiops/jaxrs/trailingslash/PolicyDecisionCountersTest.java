@@ -0,0 +1,184 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.UriInfo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.msiops.jaxrs.trailingslash.EnforcementOptions;
+import com.msiops.jaxrs.trailingslash.GlobalTrailingSlashEnforcementFilter;
+import com.msiops.jaxrs.trailingslash.Policy;
+import com.msiops.jaxrs.trailingslash.PolicyDecisionCounters;
+import com.msiops.jaxrs.trailingslash.PolicyDecisionListener;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.PolicySource;
+import com.msiops.jaxrs.trailingslash.TrailingSlashEnforcementFilter;
+
+/**
+ * Check decision reporting and counting.
+ */
+public class PolicyDecisionCountersTest {
+
+    private PolicyDecisionCounters counters;
+
+    private ContainerRequestContext mbare;
+
+    private ContainerRequestContext mslash;
+
+    @Before
+    public void setUp() {
+        this.counters = new PolicyDecisionCounters();
+        this.mbare = request("resource");
+        this.mslash = request("resource/");
+    }
+
+    @Test
+    public void testCounts() throws Exception {
+
+        final ContainerRequestFilter filter = new TrailingSlashEnforcementFilter(
+                EnforcementOptions.DEFAULTS.withListener(this.counters));
+
+        filter.filter(this.mbare);
+        filter.filter(this.mbare);
+        filter.filter(this.mslash);
+        when(this.mslash.getProperty(TrailingSlashEnforcementFilter.REQUEST_KEY))
+                .thenReturn(PolicyImpl.REQUIRE);
+        filter.filter(this.mslash);
+
+        assertEquals(2, this.counters.passed(PolicyImpl.PROHIBIT));
+        assertEquals(1, this.counters.rejected(PolicyImpl.PROHIBIT));
+        assertEquals(1, this.counters.passed(PolicyImpl.REQUIRE));
+        assertEquals(0, this.counters.rejected(PolicyImpl.REQUIRE));
+        assertEquals(3, this.counters.getTotalPassed());
+        assertEquals(1, this.counters.getTotalRejected());
+
+        this.counters.reset();
+
+        assertEquals(0, this.counters.getTotalPassed());
+        assertEquals(0, this.counters.getTotalRejected());
+
+    }
+
+    @Test
+    public void testConcurrentCounts() throws Exception {
+
+        final Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; ++t) {
+            final boolean passed = t % 2 == 0;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; ++i) {
+                    this.counters.onDecision(null, PolicyImpl.PROHIBIT,
+                            PolicySource.DEFAULT, passed);
+                }
+            });
+            threads[t].start();
+        }
+        for (final Thread t : threads) {
+            t.join();
+        }
+
+        assertEquals(40000, this.counters.passed(PolicyImpl.PROHIBIT));
+        assertEquals(40000, this.counters.rejected(PolicyImpl.PROHIBIT));
+        assertEquals(0, this.counters.passed(PolicyImpl.REQUIRE));
+        assertEquals(Long.valueOf(40000),
+                this.counters.getRejected().get("PROHIBIT"));
+
+    }
+
+    @Test
+    public void testCustomPolicyCountedAsOther() throws Exception {
+
+        final Policy custom = p -> false;
+        final ContainerRequestFilter filter = new GlobalTrailingSlashEnforcementFilter(
+                custom, EnforcementOptions.DEFAULTS.withListener(this.counters));
+
+        filter.filter(this.mbare);
+
+        assertEquals(1, this.counters.rejected(custom));
+        assertEquals(Long.valueOf(1),
+                this.counters.getRejected().get(PolicyDecisionCounters.OTHER));
+
+    }
+
+    @Test
+    public void testSourceReported() throws Exception {
+
+        final PolicyDecisionListener listener = mock(PolicyDecisionListener.class);
+        final ContainerRequestFilter filter = new GlobalTrailingSlashEnforcementFilter(
+                PolicyImpl.REQUIRE,
+                EnforcementOptions.DEFAULTS.withListener(listener));
+
+        filter.filter(this.mbare);
+        when(this.mslash.getProperty(TrailingSlashEnforcementFilter.REQUEST_KEY))
+                .thenReturn(PolicyImpl.PROHIBIT);
+        filter.filter(this.mslash);
+
+        verify(listener).onDecision(this.mbare, PolicyImpl.REQUIRE,
+                PolicySource.GLOBAL, false);
+        verify(listener).onDecision(this.mslash, PolicyImpl.PROHIBIT,
+                PolicySource.PROPERTY, false);
+
+    }
+
+    @Test
+    public void testPlatformMBean() throws Exception {
+
+        final ObjectName name = this.counters.register("test");
+        try {
+            new TrailingSlashEnforcementFilter(
+                    EnforcementOptions.DEFAULTS.withListener(this.counters))
+                    .filter(this.mslash);
+
+            final MBeanServer server = ManagementFactory
+                    .getPlatformMBeanServer();
+            assertEquals(1L, server.getAttribute(name, "TotalRejected"));
+            final TabularData rejected = (TabularData) server.getAttribute(
+                    name, "Rejected");
+            final CompositeData row = rejected
+                    .get(new Object[] { PolicyImpl.PROHIBIT.name() });
+            assertEquals(1L, row.get("value"));
+        } finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+
+    }
+
+    private static ContainerRequestContext request(final String path) {
+        final ContainerRequestContext mreq = mock(ContainerRequestContext.class);
+        final UriInfo muii = mock(UriInfo.class);
+        when(mreq.getUriInfo()).thenReturn(muii);
+        when(muii.getPath()).thenReturn(path);
+        when(muii.getBaseUri()).thenReturn(URI.create("http://h/"));
+        when(muii.getRequestUri()).thenReturn(URI.create("http://h/" + path));
+        return mreq;
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import javax.ws.rs.container.ContainerRequestContext;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import com.msiops.jaxrs.trailingslash.PolicyDecisionCounters;
+import com.msiops.jaxrs.trailingslash.PolicyDecisionListener;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.PolicySource;
+
+/**
+ * Check combining decision listeners.
+ */
+public class PolicyDecisionListenerTest {
+
+    @Test
+    public void testAllCalledInOrder() {
+
+        final PolicyDecisionListener first = mock(PolicyDecisionListener.class);
+        final PolicyDecisionListener second = mock(PolicyDecisionListener.class);
+        final ContainerRequestContext mreq = mock(ContainerRequestContext.class);
+
+        PolicyDecisionListener.all(first, second).onDecision(mreq,
+                PolicyImpl.REQUIRE, PolicySource.RESOURCE, false);
+
+        final InOrder order = inOrder(first, second);
+        order.verify(first).onDecision(mreq, PolicyImpl.REQUIRE,
+                PolicySource.RESOURCE, false);
+        order.verify(second).onDecision(mreq, PolicyImpl.REQUIRE,
+                PolicySource.RESOURCE, false);
+
+    }
+
+    @Test
+    public void testSingleListenerUnwrapped() {
+
+        final PolicyDecisionCounters counters = new PolicyDecisionCounters();
+
+        assertSame(counters, PolicyDecisionListener.all(counters));
+
+    }
+
+    @Test
+    public void testLaterChangesIgnored() {
+
+        final PolicyDecisionCounters counters = new PolicyDecisionCounters();
+        final PolicyDecisionListener[] listeners = { counters, counters };
+        final PolicyDecisionListener all = PolicyDecisionListener
+                .all(listeners);
+        listeners[1] = null;
+
+        all.onDecision(null, PolicyImpl.PROHIBIT, PolicySource.DEFAULT, true);
+
+        assertEquals(2, counters.passed(PolicyImpl.PROHIBIT));
+
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullListener() {
+
+        PolicyDecisionListener.all(new PolicyDecisionCounters(), null);
+
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.msiops.jaxrs.trailingslash.EnforcementOptions;
+import com.msiops.jaxrs.trailingslash.PathPrefixPolicies;
+import com.msiops.jaxrs.trailingslash.Policy;
+import com.msiops.jaxrs.trailingslash.PolicyControl;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.TrailingSlashEnforcementFilter;
+
+/**
+ * Check enforcement of path prefix rules and their precedence between
+ * injected policy and the default policy.
+ */
+@RunWith(Parameterized.class)
+public class PrefixPolicyEnforcementTest {
+
+    private static final PathPrefixPolicies RULES = PathPrefixPolicies
+            .builder().rule("/api/**", PolicyImpl.REQUIRE)
+            .rule("/static/**", PolicyImpl.ALLOW).build();
+
+    @Parameters
+    public static Collection<Object[]> cases() {
+
+        /*
+         * injected policy (or null), path, expected pass.
+         */
+        return Arrays.asList(new Object[][] {
+                { null, "api/items", false },
+                { null, "api/items/", true },
+                { null, "static/a.css/", true },
+                { null, "other", true },
+                { null, "other/", false },
+                { PolicyImpl.PROHIBIT, "api/items", true },
+                { PolicyImpl.PROHIBIT, "api/items/", false } });
+
+    }
+
+    private final boolean expected;
+
+    private final Policy injected;
+
+    private ContainerRequestContext mreq;
+
+    private final String path;
+
+    public PrefixPolicyEnforcementTest(final Policy injected,
+            final String path, final boolean expected) {
+        this.injected = injected;
+        this.path = path;
+        this.expected = expected;
+    }
+
+    @Before
+    public void setUp() {
+        this.mreq = mock(ContainerRequestContext.class);
+        final UriInfo muii = mock(UriInfo.class);
+        when(this.mreq.getUriInfo()).thenReturn(muii);
+        when(muii.getPath()).thenReturn(this.path);
+        when(muii.getBaseUri()).thenReturn(URI.create("http://h/app/"));
+        when(muii.getRequestUri()).thenReturn(
+                URI.create("http://h/app/" + this.path));
+        when(this.mreq.getProperty(TrailingSlashEnforcementFilter.REQUEST_KEY))
+                .thenReturn(this.injected);
+    }
+
+    @Test
+    public void testPass() throws Exception {
+
+        final ContainerRequestFilter filter = new TrailingSlashEnforcementFilter(
+                RULES);
+
+        filter.filter(this.mreq);
+
+        verify(this.mreq, times(this.expected ? 0 : 1)).abortWith(
+                (Response) any());
+
+    }
+
+    /**
+     * Ensure rules take precedence over a controlled default.
+     */
+    @Test
+    public void testPassWithControl() throws Exception {
+
+        final ContainerRequestFilter filter = new TrailingSlashEnforcementFilter(
+                new PolicyControl(PolicyImpl.REQUIRE), RULES,
+                EnforcementOptions.DEFAULTS);
+
+        filter.filter(this.mreq);
+
+        final boolean defaulted = this.injected == null
+                && this.path.startsWith("other");
+        final boolean pass = defaulted ? this.path.endsWith("/")
+                : this.expected;
+        verify(this.mreq, times(pass ? 0 : 1)).abortWith((Response) any());
+
+    }
+
+}
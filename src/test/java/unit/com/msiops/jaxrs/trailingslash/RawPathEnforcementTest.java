@@ -0,0 +1,190 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.mockito.ArgumentCaptor;
+
+import com.msiops.jaxrs.trailingslash.CanonicalRedirect;
+import com.msiops.jaxrs.trailingslash.EnforcementOptions;
+import com.msiops.jaxrs.trailingslash.PathEvaluation;
+import com.msiops.jaxrs.trailingslash.Policy;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.TrailingSlashEnforcementFilter;
+
+/**
+ * Check enforcement against the raw request path, which built-in policies
+ * are also tested on under decoded evaluation.
+ */
+@RunWith(Parameterized.class)
+public class RawPathEnforcementTest {
+
+    private static final String BASE = "http://localhost/app/";
+
+    @Parameters
+    public static Collection<Object[]> cases() {
+
+        /*
+         * path evaluation, policy, request URI, expected pass.
+         */
+        return Arrays.asList(new Object[][] {
+                { PathEvaluation.RAW, PolicyImpl.REQUIRE, "app/data", false },
+                { PathEvaluation.RAW, PolicyImpl.REQUIRE, "app/data/", true },
+                { PathEvaluation.RAW, PolicyImpl.PROHIBIT, "app/data", true },
+                { PathEvaluation.RAW, PolicyImpl.PROHIBIT, "app/data/", false },
+                { PathEvaluation.RAW, PolicyImpl.PROHIBIT, "app/data?q=a/", true },
+                { PathEvaluation.RAW, PolicyImpl.PROHIBIT, "app/d%20x", true },
+                { PathEvaluation.RAW, PolicyImpl.PROHIBIT, "app/data%2F", false },
+                { PathEvaluation.RAW, PolicyImpl.PROHIBIT, "app/data%2f", false },
+                { PathEvaluation.RAW, PolicyImpl.REQUIRE, "app/data%2F", true },
+                { PathEvaluation.RAW_LITERAL, PolicyImpl.PROHIBIT, "app/data%2F", true },
+                { PathEvaluation.RAW_LITERAL, PolicyImpl.REQUIRE, "app/data%2F", false },
+                { PathEvaluation.RAW_LITERAL, PolicyImpl.REQUIRE, "app/data/", true },
+                { PathEvaluation.RAW_LITERAL, PolicyImpl.PROHIBIT, "app/data%2F/", false },
+                { PathEvaluation.DECODED, PolicyImpl.REQUIRE, "app/caf%C3%A9", false },
+                { PathEvaluation.DECODED, PolicyImpl.REQUIRE, "app/caf%C3%A9/", true },
+                { PathEvaluation.DECODED, PolicyImpl.PROHIBIT, "app/data%2F", false },
+
+                /*
+                 * application root has an empty relative path
+                 */
+                { PathEvaluation.RAW, PolicyImpl.PROHIBIT, "app/", true },
+                { PathEvaluation.RAW, PolicyImpl.PROHIBIT, "app", true },
+                { PathEvaluation.RAW, PolicyImpl.REQUIRE, "app/", false },
+                { PathEvaluation.RAW_LITERAL, PolicyImpl.PROHIBIT, "app/", true },
+                { PathEvaluation.DECODED, PolicyImpl.REQUIRE, "app/", false } });
+
+    }
+
+    private final boolean expected;
+
+    private ContainerRequestContext mreq;
+
+    private final PathEvaluation pathEvaluation;
+
+    private final Policy policy;
+
+    private final String requestUri;
+
+    public RawPathEnforcementTest(final PathEvaluation pathEvaluation,
+            final Policy policy, final String requestUri,
+            final boolean expected) {
+        this.pathEvaluation = pathEvaluation;
+        this.policy = policy;
+        this.requestUri = requestUri;
+        this.expected = expected;
+    }
+
+    @Before
+    public void setUp() {
+        this.mreq = request(URI.create("http://localhost/" + this.requestUri));
+    }
+
+    private ContainerRequestContext request(final URI uri) {
+        final ContainerRequestContext mreq = mock(ContainerRequestContext.class);
+        final UriInfo muii = mock(UriInfo.class);
+        when(mreq.getUriInfo()).thenReturn(muii);
+        when(muii.getBaseUri()).thenReturn(URI.create(BASE));
+        when(muii.getRequestUri()).thenReturn(uri);
+        when(mreq.getProperty(TrailingSlashEnforcementFilter.REQUEST_KEY))
+                .thenReturn(this.policy);
+        return mreq;
+    }
+
+    /**
+     * Ensure the raw path is judged as expected.
+     */
+    @Test
+    public void testPass() throws Exception {
+
+        final ContainerRequestFilter filter = new TrailingSlashEnforcementFilter(
+                this.pathEvaluation);
+
+        filter.filter(this.mreq);
+
+        verify(this.mreq, times(this.expected ? 0 : 1)).abortWith(
+                (Response) any());
+
+    }
+
+    /**
+     * Ensure a redirect leads to a path that passes when judged the same way.
+     */
+    @Test
+    public void testRedirectTargetPasses() throws Exception {
+
+        Assume.assumeFalse(this.expected);
+
+        final EnforcementOptions options = EnforcementOptions.DEFAULTS
+                .withPathEvaluation(this.pathEvaluation).withRejection(
+                        CanonicalRedirect.PERMANENT_REDIRECT);
+        new TrailingSlashEnforcementFilter(options).filter(this.mreq);
+
+        final ArgumentCaptor<Response> redirect = ArgumentCaptor
+                .forClass(Response.class);
+        verify(this.mreq).abortWith(redirect.capture());
+        final String location = redirect.getValue().getHeaderString(
+                HttpHeaders.LOCATION);
+        final ContainerRequestContext followed = request(URI.create(location));
+        new TrailingSlashEnforcementFilter(options).filter(followed);
+
+        verify(followed, never()).abortWith((Response) any());
+
+        /*
+         * where an encoded slash is path data, only plain slashes change.
+         */
+        if (this.pathEvaluation == PathEvaluation.RAW_LITERAL) {
+            assertEquals(
+                    ("http://localhost/" + this.requestUri).replaceAll("/+$",
+                            ""), location.replaceAll("/+$", ""));
+        }
+
+    }
+
+    /**
+     * Ensure the decoded path is never requested.
+     */
+    @Test
+    public void testNoDecodedPath() throws Exception {
+
+        new TrailingSlashEnforcementFilter(this.pathEvaluation)
+                .filter(this.mreq);
+
+        verify(this.mreq.getUriInfo(), never()).getPath();
+
+    }
+
+}
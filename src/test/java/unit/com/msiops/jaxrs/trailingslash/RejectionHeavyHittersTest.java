@@ -0,0 +1,166 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.net.URI;
+import java.util.List;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.UriInfo;
+
+import org.junit.Test;
+
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.PolicySource;
+import com.msiops.jaxrs.trailingslash.RejectionHeavyHitters;
+
+/**
+ * Check heavy hitter tracking of rejections.
+ */
+public class RejectionHeavyHittersTest {
+
+    private static ContainerRequestContext request(final String path) {
+        final ContainerRequestContext mreq = mock(ContainerRequestContext.class);
+        final UriInfo muii = mock(UriInfo.class);
+        when(mreq.getUriInfo()).thenReturn(muii);
+        when(muii.getRequestUri()).thenReturn(URI.create("http://h" + path));
+        when(mreq.getHeaderString("X-Forwarded-For")).thenReturn(
+                path.length() % 2 == 0 ? "10.0.0.1" : null);
+        return mreq;
+    }
+
+    private static void reject(final RejectionHeavyHitters h,
+            final ContainerRequestContext req, final int times) {
+        for (int i = 0; i < times; ++i) {
+            h.onDecision(req, PolicyImpl.PROHIBIT, PolicySource.DEFAULT, false);
+        }
+    }
+
+    @Test
+    public void testTopPaths() {
+
+        final RejectionHeavyHitters h = RejectionHeavyHitters.byPath(3);
+
+        reject(h, request("/crawled/a/"), 500);
+        reject(h, request("/crawled/b/"), 300);
+        reject(h, request("/crawled/c/"), 200);
+        for (int i = 0; i < 2000; ++i) {
+            reject(h, request("/noise/" + i + "/"), 1);
+        }
+        h.onDecision(request("/passed/"), PolicyImpl.ALLOW,
+                PolicySource.DEFAULT, true);
+
+        final List<RejectionHeavyHitters.Entry> top = h.top();
+        assertEquals(3, top.size());
+        assertEquals("/crawled/a/", top.get(0).key());
+        assertEquals("/crawled/b/", top.get(1).key());
+        assertEquals("/crawled/c/", top.get(2).key());
+        assertTrue(top.get(0).count() >= 500);
+        assertTrue(top.get(2).count() >= 200);
+
+        h.reset();
+        assertTrue(h.top().isEmpty());
+
+    }
+
+    @Test
+    public void testEqualHashCodesCountedApart() {
+
+        /*
+         * "Aa" and "BB" have the same hashCode, so do all 64 paths made of
+         * six of them.
+         */
+        final String[] paths = new String[64];
+        for (int i = 0; i < paths.length; ++i) {
+            final StringBuilder b = new StringBuilder("/");
+            for (int bit = 0; bit < 6; ++bit) {
+                b.append((i >> bit & 1) == 0 ? "Aa" : "BB");
+            }
+            paths[i] = b.toString();
+            assertEquals(paths[0].hashCode(), paths[i].hashCode());
+        }
+
+        final RejectionHeavyHitters h = RejectionHeavyHitters
+                .byPath(paths.length);
+        for (int i = 0; i < paths.length; ++i) {
+            reject(h, request(paths[i]), i + 1);
+        }
+
+        final List<RejectionHeavyHitters.Entry> top = h.top();
+        assertEquals(paths.length, top.size());
+        for (int i = 0; i < paths.length; ++i) {
+            assertEquals(paths[paths.length - 1 - i], top.get(i).key());
+            assertEquals(paths.length - i, top.get(i).count());
+        }
+
+    }
+
+    @Test
+    public void testRequestsWithoutKeyIgnored() {
+
+        final RejectionHeavyHitters h = RejectionHeavyHitters.byHeader(
+                "X-Forwarded-For", 2);
+
+        reject(h, request("/ab"), 5);
+        reject(h, request("/abc"), 5);
+
+        final List<RejectionHeavyHitters.Entry> top = h.top();
+        assertEquals(1, top.size());
+        assertEquals("10.0.0.1", top.get(0).key());
+        assertEquals(5, top.get(0).count());
+
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+
+        final RejectionHeavyHitters h = RejectionHeavyHitters.byPath(2);
+        final ContainerRequestContext hot = request("/hot/");
+        final ContainerRequestContext warm = request("/warm/");
+
+        final Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; ++t) {
+            final int n = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 5000; ++i) {
+                    reject(h, hot, 2);
+                    reject(h, warm, 1);
+                    reject(h, request("/cold/" + n + "/" + i), 1);
+                }
+            });
+            threads[t].start();
+        }
+        for (final Thread t : threads) {
+            t.join();
+        }
+
+        /*
+         * the last heap update of a key can be skipped under contention, but
+         * the reported counts are read from the sketch.
+         */
+        final List<RejectionHeavyHitters.Entry> top = h.top();
+        assertEquals("/hot/", top.get(0).key());
+        assertEquals("/warm/", top.get(1).key());
+        assertTrue(top.get(0).count() >= 40000);
+        assertTrue(top.get(1).count() >= 20000);
+
+    }
+
+}
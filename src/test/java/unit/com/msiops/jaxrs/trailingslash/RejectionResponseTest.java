@@ -0,0 +1,176 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.UriInfo;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.msiops.jaxrs.trailingslash.EnforcementOptions;
+import com.msiops.jaxrs.trailingslash.GlobalTrailingSlashEnforcementFilter;
+import com.msiops.jaxrs.trailingslash.Policy;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.RejectionResponse;
+
+/**
+ * Check prepared rejection responses and their selection by policy.
+ */
+public class RejectionResponseTest {
+
+    @Test
+    public void testDefaultIsBareNotFound() {
+
+        final Response r = RejectionResponse.NOT_FOUND.response(null, null);
+
+        assertEquals(Status.NOT_FOUND.getStatusCode(), r.getStatus());
+        assertFalse(r.hasEntity());
+
+    }
+
+    @Test
+    public void testHeadersAndEntity() {
+
+        final RejectionResponse underTest = RejectionResponse.of(410)
+                .withHeader("X-Policy", "require")
+                .withEntity("gon\u00e9", MediaType.TEXT_PLAIN_TYPE);
+
+        final Response r = underTest.response(null, null);
+
+        assertEquals(410, r.getStatus());
+        assertEquals("require", r.getHeaderString("X-Policy"));
+        assertEquals(MediaType.TEXT_PLAIN_TYPE, r.getMediaType());
+        assertArrayEquals("gon\u00e9".getBytes(StandardCharsets.UTF_8),
+                (byte[]) r.getEntity());
+
+    }
+
+    @Test
+    public void testEntityCharsetFromMediaType() {
+
+        final Response r = RejectionResponse.NOT_FOUND
+                .withEntity("gon\u00e9",
+                        MediaType.TEXT_PLAIN_TYPE.withCharset("ISO-8859-1"))
+                .response(null, null);
+
+        assertArrayEquals(new byte[] { 'g', 'o', 'n', (byte) 0xe9 },
+                (byte[]) r.getEntity());
+
+    }
+
+    @Test
+    public void testCacheHeaders() {
+
+        final CacheControl cc = new CacheControl();
+        cc.setMaxAge(3600);
+
+        final Response r = RejectionResponse.NOT_FOUND
+                .withCacheControl("public, max-age=3600")
+                .withHeader(HttpHeaders.VARY, "Accept-Encoding")
+                .withHeader("X-Cache-Control", cc).response(null, null);
+
+        assertEquals("public, max-age=3600",
+                r.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        assertEquals("Accept-Encoding", r.getHeaderString(HttpHeaders.VARY));
+
+        /*
+         * formatted when configured, not when written.
+         */
+        final Object formatted = r.getHeaders().getFirst("X-Cache-Control");
+        assertTrue(formatted instanceof String);
+        assertTrue(((String) formatted).contains("max-age=3600"));
+
+    }
+
+    @Test
+    public void testFreshResponsePerRejection() {
+
+        final RejectionResponse underTest = RejectionResponse.NOT_FOUND
+                .withHeader("X-A", "a");
+
+        assertNotSame(underTest.response(null, null),
+                underTest.response(null, null));
+
+    }
+
+    @Test
+    public void testWithLeavesOriginal() {
+
+        RejectionResponse.NOT_FOUND.withHeader("X-A", "a");
+
+        assertNull(RejectionResponse.NOT_FOUND.response(null, null)
+                .getHeaderString("X-A"));
+
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStatus() {
+
+        RejectionResponse.of(99);
+
+    }
+
+    /**
+     * Ensure a rejection configured for a policy is used for that policy only.
+     */
+    @Test
+    public void testPerPolicyRejection() throws Exception {
+
+        final EnforcementOptions options = EnforcementOptions.DEFAULTS
+                .withRejection(RejectionResponse.of(Status.BAD_REQUEST))
+                .withRejection(PolicyImpl.REQUIRE, RejectionResponse.of(410));
+
+        assertEquals(410, reject(options, PolicyImpl.REQUIRE, "resource"));
+        assertEquals(Status.BAD_REQUEST.getStatusCode(),
+                reject(options, PolicyImpl.PROHIBIT, "resource/"));
+        assertEquals(Status.BAD_REQUEST.getStatusCode(),
+                reject(options, s -> false, "resource"));
+
+    }
+
+    private int reject(final EnforcementOptions options, final Policy policy,
+            final String path) throws Exception {
+
+        final ContainerRequestContext mreq = mock(ContainerRequestContext.class);
+        final UriInfo muii = mock(UriInfo.class);
+        when(mreq.getUriInfo()).thenReturn(muii);
+        when(muii.getPath()).thenReturn(path);
+        when(muii.getBaseUri()).thenReturn(URI.create("http://h/"));
+        when(muii.getRequestUri()).thenReturn(URI.create("http://h/" + path));
+
+        new GlobalTrailingSlashEnforcementFilter(policy, options).filter(mreq);
+
+        final ArgumentCaptor<Response> response = ArgumentCaptor
+                .forClass(Response.class);
+        verify(mreq).abortWith(response.capture());
+        return response.getValue().getStatus();
+
+    }
+
+}
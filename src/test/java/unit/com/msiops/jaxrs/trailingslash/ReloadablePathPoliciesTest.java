@@ -0,0 +1,188 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.msiops.jaxrs.trailingslash.PathPrefixPolicies;
+import com.msiops.jaxrs.trailingslash.Policy;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.ReloadablePathPolicies;
+
+/**
+ * Check loading, reloading, and concurrent lookup of rules from a file.
+ */
+public class ReloadablePathPoliciesTest {
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        this.file = this.tmp.getRoot().toPath().resolve("rules.conf");
+    }
+
+    @Test
+    public void testLoad() throws IOException {
+
+        write("# rules", "", "/api/v1/collections/** = REQUIRE",
+                "  /static/**   =ALLOW  ", "/** = PROHIBIT");
+
+        final PathPrefixPolicies rules = ReloadablePathPolicies.load(this.file)
+                .get();
+
+        assertEquals(PolicyImpl.REQUIRE, rules.lookup("api/v1/collections/x"));
+        assertEquals(PolicyImpl.ALLOW, rules.lookup("static/a.css"));
+        assertEquals(PolicyImpl.PROHIBIT, rules.lookup("other"));
+
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedRejected() throws IOException {
+
+        write("/api/** REQUIRE");
+        ReloadablePathPolicies.load(this.file);
+
+    }
+
+    @Test
+    public void testFailedReloadKeepsRules() throws IOException {
+
+        write("/api/** = REQUIRE");
+        final ReloadablePathPolicies rules = ReloadablePathPolicies
+                .load(this.file);
+
+        write("/api/** = SOMETIMES");
+        assertFalse(rules.reload());
+        assertNotNull(rules.lastFailure());
+        assertEquals(PolicyImpl.REQUIRE, rules.get().lookup("api"));
+
+        write("/api/** = PROHIBIT");
+        assertTrue(rules.reload());
+        assertNull(rules.lastFailure());
+        assertEquals(PolicyImpl.PROHIBIT, rules.get().lookup("api"));
+        assertEquals(1, rules.reloads());
+
+    }
+
+    @Test(timeout = 30000)
+    public void testWatchReloads() throws Exception {
+
+        write("/api/** = REQUIRE");
+        try (ReloadablePathPolicies rules = ReloadablePathPolicies.load(
+                this.file).watch()) {
+
+            replace("/api/** = PROHIBIT");
+
+            while (rules.get().lookup("api") != PolicyImpl.PROHIBIT) {
+                Thread.sleep(10);
+            }
+        }
+
+    }
+
+    /**
+     * Hammer lookups while the rules are replaced. Every version maps both
+     * rules to the same policy, so a lookup pair that disagrees would mean a
+     * half-applied update.
+     */
+    @Test(timeout = 60000)
+    public void testConcurrentReload() throws Exception {
+
+        replace(version(0));
+        final ReloadablePathPolicies rules = ReloadablePathPolicies
+                .load(this.file);
+
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicLong lookups = new AtomicLong();
+        final AtomicReference<String> failure = new AtomicReference<>();
+        final Thread[] readers = new Thread[4];
+        for (int t = 0; t < readers.length; ++t) {
+            readers[t] = new Thread(() -> {
+                long n = 0;
+                while (!done.get()) {
+                    final PathPrefixPolicies snapshot = rules.get();
+                    final Policy a = snapshot.lookup("a/x/y");
+                    final Policy b = snapshot.lookup("b/");
+                    if (a != b || a == null) {
+                        failure.set(a + " != " + b);
+                    }
+                    ++n;
+                }
+                lookups.addAndGet(n);
+            });
+            readers[t].start();
+        }
+
+        for (int v = 1; v <= 200; ++v) {
+            replace(version(v));
+            assertTrue(rules.reload());
+        }
+        done.set(true);
+        for (final Thread t : readers) {
+            t.join();
+        }
+
+        assertNull(failure.get());
+        assertEquals(200, rules.reloads());
+        assertEquals(PolicyImpl.REQUIRE, rules.get().lookup("a"));
+        assertTrue(lookups.get() > 0);
+
+    }
+
+    private String[] version(final int v) {
+        final PolicyImpl p = v % 2 == 0 ? PolicyImpl.REQUIRE
+                : PolicyImpl.PROHIBIT;
+        final String[] lines = new String[50];
+        for (int i = 0; i < lines.length - 2; ++i) {
+            lines[i] = "/r" + v + "/" + i + "/** = ALLOW";
+        }
+        lines[lines.length - 2] = "/a/** = " + p;
+        lines[lines.length - 1] = "/b/** = " + p;
+        return lines;
+    }
+
+    private void write(final String... lines) throws IOException {
+        Files.write(this.file, Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+
+    private void replace(final String... lines) throws IOException {
+        final Path next = Files.createTempFile(this.tmp.getRoot().toPath(),
+                "rules", ".tmp");
+        Files.write(next, Arrays.asList(lines), StandardCharsets.UTF_8);
+        Files.move(next, this.file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+}
@@ -0,0 +1,281 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Arrays;
+import java.util.Collection;
+
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.msiops.jaxrs.trailingslash.AllowTrailingSlash;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.ProhibitTrailingSlash;
+import com.msiops.jaxrs.trailingslash.RequireTrailingSlash;
+import com.msiops.jaxrs.trailingslash.RoutePolicyIndex;
+
+/**
+ * Check route policy lookup.
+ */
+@RunWith(Parameterized.class)
+public class RoutePolicyIndexTest {
+
+    private static final RoutePolicyIndex INDEX = RoutePolicyIndex.of(
+            PolicyImpl.PROHIBIT, Items.class, Files.class, Tags.class,
+            Inherited.class, Object.class);
+
+    @Parameters
+    public static Collection<Object[]> cases() {
+
+        /*
+         * method, raw relative path, expected policy (null if unknown).
+         */
+        return Arrays.asList(new Object[][] {
+                { "GET", "items", PolicyImpl.REQUIRE },
+                { "GET", "items/", PolicyImpl.REQUIRE },
+                { "GET", "/items/", PolicyImpl.REQUIRE },
+                { "HEAD", "items", PolicyImpl.REQUIRE },
+                { "POST", "items", PolicyImpl.ALLOW },
+                { "DELETE", "items", null },
+                { "GET", "items;v=1", PolicyImpl.REQUIRE },
+                { "GET", "items/42", PolicyImpl.PROHIBIT },
+                { "GET", "items/new", PolicyImpl.ALLOW },
+                { "GET", "items/42/tags", PolicyImpl.REQUIRE },
+                { "GET", "items/42/x", null },
+                { "GET", "items/42.json", PolicyImpl.ALLOW },
+                { "GET", "items/42.xml", PolicyImpl.PROHIBIT },
+                { "GET", "items/v7.json", PolicyImpl.ALLOW },
+                { "GET", "items/v7", PolicyImpl.REQUIRE },
+                { "GET", "items/caf%C3%A9", PolicyImpl.REQUIRE },
+                { "GET", "files", PolicyImpl.PROHIBIT },
+                { "GET", "files/a/b/c.txt", PolicyImpl.ALLOW },
+                { "GET", "tags", PolicyImpl.PROHIBIT },
+                { "HEAD", "tags", PolicyImpl.PROHIBIT },
+                { "POST", "tags", PolicyImpl.REQUIRE },
+                { "PATCH", "tags", PolicyImpl.REQUIRE },
+                { "PROPFIND", "tags", null },
+                { "GET", "inherited/items", PolicyImpl.ALLOW },
+                { "POST", "inherited", PolicyImpl.REQUIRE },
+                { "PUT", "inherited", PolicyImpl.PROHIBIT },
+                { "DELETE", "inherited", null },
+                { "GET", "nothing", null },
+                { "GET", "", null } });
+
+    }
+
+    private final PolicyImpl expected;
+
+    private final String method;
+
+    private final String path;
+
+    public RoutePolicyIndexTest(final String method, final String path,
+            final PolicyImpl expected) {
+        this.method = method;
+        this.path = path;
+        this.expected = expected;
+    }
+
+    @Test
+    public void testLookup() {
+
+        assertEquals(this.expected, INDEX.lookup(this.method, this.path));
+
+    }
+
+    /**
+     * Ensure routes for the same path and method with different policies are
+     * reported as unknown.
+     */
+    @Test
+    public void testConflictIsUnknown() {
+
+        final RoutePolicyIndex index = RoutePolicyIndex.builder()
+                .route("/a/{id}", "GET", PolicyImpl.REQUIRE)
+                .route("a/{other}/", "GET", PolicyImpl.PROHIBIT)
+                .route("a/{id}", "PUT", PolicyImpl.PROHIBIT).build();
+
+        assertNull(index.lookup("GET", "a/1"));
+        assertEquals(PolicyImpl.PROHIBIT, index.lookup("PUT", "a/1"));
+
+    }
+
+    @Path("items")
+    @RequireTrailingSlash
+    public static final class Items {
+
+        @POST
+        @AllowTrailingSlash
+        public void create() {
+        }
+
+        @GET
+        @Path("{id}")
+        @ProhibitTrailingSlash
+        public void get() {
+        }
+
+        @GET
+        @Path("{id}.json")
+        @AllowTrailingSlash
+        public void getJson() {
+        }
+
+        @GET
+        @Path("{id: v[0-9]+}")
+        public void getVersion() {
+        }
+
+        @GET
+        @Path("{id: v[0-9]+}.{ext}")
+        @ProhibitTrailingSlash
+        public void getVersionWithExtension() {
+        }
+
+        @GET
+        public void list() {
+        }
+
+        @GET
+        @Path("new")
+        @AllowTrailingSlash
+        public void newForm() {
+        }
+
+        @GET
+        @Path("caf\u00e9")
+        public void special() {
+        }
+
+        @Path("{id}/locator")
+        public Object sub() {
+            return null;
+        }
+
+        @GET
+        @Path("{id}/tags")
+        public void tags() {
+        }
+
+        @GET
+        @Path("{id}.xml")
+        @ProhibitTrailingSlash
+        public void getXml() {
+        }
+
+    }
+
+    @Path("/files/")
+    public static final class Files {
+
+        @GET
+        public void list() {
+        }
+
+        @GET
+        @Path("{path: .+}")
+        @AllowTrailingSlash
+        public void get() {
+        }
+
+    }
+
+    @Target(ElementType.METHOD)
+    @Retention(RetentionPolicy.RUNTIME)
+    @HttpMethod("PATCH")
+    public @interface PATCH {
+    }
+
+    @Path("tags")
+    @ProhibitTrailingSlash
+    @RequireTrailingSlash(methods = { HttpMethod.POST, "PATCH" })
+    public static final class Tags {
+
+        @POST
+        public void create() {
+        }
+
+        @GET
+        public void list() {
+        }
+
+        @PATCH
+        public void update() {
+        }
+
+    }
+
+    public interface InheritedApi {
+
+        @GET
+        @Path("items")
+        String items();
+
+        @DELETE
+        void remove();
+
+    }
+
+    public abstract static class InheritedBase {
+
+        @POST
+        public abstract void create();
+
+    }
+
+    @Path("inherited")
+    @RequireTrailingSlash
+    public static final class Inherited extends InheritedBase implements
+            InheritedApi {
+
+        @Override
+        public void create() {
+        }
+
+        @Override
+        @AllowTrailingSlash
+        public String items() {
+            return "";
+        }
+
+        /**
+         * Annotated itself, so nothing is inherited.
+         */
+        @Override
+        @PUT
+        @ProhibitTrailingSlash
+        public void remove() {
+        }
+
+    }
+
+}
@@ -0,0 +1,274 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.msiops.jaxrs.trailingslash.Policy;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.RoutePolicyIndex;
+import com.msiops.jaxrs.trailingslash.processor.RoutePolicyProcessor;
+
+/**
+ * Check compile-time route policy table generation.
+ */
+public class RoutePolicyProcessorTest {
+
+    private static final String RESOURCE = "package app;\n"
+            + "import javax.ws.rs.*;\n"
+            + "import com.msiops.jaxrs.trailingslash.*;\n"
+            + "@Path(\"/data\")\n"
+            + "@RequireTrailingSlash\n"
+            + "@AllowTrailingSlash(methods = \"POST\")\n"
+            + "public class DataResource {\n"
+            + "  @POST public void post() { }\n"
+            + "  @GET public String get() { return \"\"; }\n"
+            + "  @GET @Path(\"{id}\") @ProhibitTrailingSlash public String one() { return \"\"; }\n"
+            + "  @PUT @Path(\"{id}\") @AllowTrailingSlash public void put() { }\n"
+            + "  public String helper() { return \"\"; }\n"
+            + "}\n";
+
+    private static final String PLAIN = "package app.other;\n"
+            + "import javax.ws.rs.*;\n"
+            + "@Path(\"plain\")\n"
+            + "public class PlainResource {\n"
+            + "  @GET @Path(\"x/\") public String get() { return \"\"; }\n"
+            + "}\n";
+
+    private static final Pattern TYPE_NAME = Pattern
+            .compile("(?:class|interface) (\\w+)");
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    private JavaCompiler compiler;
+
+    private DiagnosticCollector<JavaFileObject> diagnostics;
+
+    private File out;
+
+    @Before
+    public void setup() throws IOException {
+
+        this.compiler = ToolProvider.getSystemJavaCompiler();
+        Assume.assumeNotNull(this.compiler);
+        this.diagnostics = new DiagnosticCollector<>();
+        this.out = this.tmp.newFolder("classes");
+
+    }
+
+    @Test
+    public void testConflictFailsCompilation() throws IOException {
+
+        final boolean ok = compile(Collections.<String> emptyList(),
+                "package app;\n"
+                        + "import javax.ws.rs.*;\n"
+                        + "import com.msiops.jaxrs.trailingslash.*;\n"
+                        + "@Path(\"/data\")\n"
+                        + "public class DataResource {\n"
+                        + "  @GET @AllowTrailingSlash @RequireTrailingSlash\n"
+                        + "  public String get() { return \"\"; }\n"
+                        + "}\n");
+
+        assertFalse(ok);
+        assertTrue(errors().contains(
+                "conflicting trailing slash policies ALLOW and REQUIRE"));
+
+    }
+
+    @Test
+    public void testConflictOnClassFailsCompilation() throws IOException {
+
+        final boolean ok = compile(Collections.<String> emptyList(),
+                "package app;\n"
+                        + "import com.msiops.jaxrs.trailingslash.*;\n"
+                        + "@ProhibitTrailingSlash @RequireTrailingSlash\n"
+                        + "public class NotAResource {\n"
+                        + "}\n");
+
+        assertFalse(ok);
+        assertTrue(errors().contains(
+                "conflicting trailing slash policies PROHIBIT and REQUIRE"));
+
+    }
+
+    @Test
+    public void testOverlappingRestrictionsFailCompilation()
+            throws IOException {
+
+        final boolean ok = compile(Collections.<String> emptyList(),
+                "package app;\n"
+                        + "import javax.ws.rs.*;\n"
+                        + "import com.msiops.jaxrs.trailingslash.*;\n"
+                        + "@Path(\"/data\")\n"
+                        + "public class DataResource {\n"
+                        + "  @GET @AllowTrailingSlash(methods = { \"GET\", \"PUT\" })\n"
+                        + "  @RequireTrailingSlash(methods = \"PUT\")\n"
+                        + "  public String get() { return \"\"; }\n"
+                        + "}\n");
+
+        assertFalse(ok);
+        assertTrue(errors().contains(
+                "conflicting trailing slash policies ALLOW and REQUIRE"));
+
+    }
+
+    @Test
+    public void testDefaultTableName() throws Exception {
+
+        assertTrue(errors(), compile(Collections.<String> emptyList(), PLAIN, RESOURCE));
+
+        final RoutePolicyIndex index = index("app.TrailingSlashRoutes",
+                PolicyImpl.ALLOW);
+        assertEquals(PolicyImpl.REQUIRE, index.lookup("GET", "data"));
+
+    }
+
+    @Test
+    public void testInheritedAnnotations() throws Exception {
+
+        assertTrue(errors(), compile(Collections.<String> emptyList(),
+                "package app;\n"
+                        + "import javax.ws.rs.*;\n"
+                        + "public interface Api {\n"
+                        + "  @GET @Path(\"items\") String items();\n"
+                        + "  @DELETE void remove();\n"
+                        + "}\n",
+                "package app;\n"
+                        + "import javax.ws.rs.*;\n"
+                        + "public abstract class Base {\n"
+                        + "  @POST public abstract void create();\n"
+                        + "}\n",
+                "package app;\n"
+                        + "import javax.ws.rs.*;\n"
+                        + "import com.msiops.jaxrs.trailingslash.*;\n"
+                        + "@Path(\"/api\")\n"
+                        + "@ProhibitTrailingSlash\n"
+                        + "public class Impl extends Base implements Api {\n"
+                        + "  @GET @Path(\"direct\") public String direct() { return \"\"; }\n"
+                        + "  @RequireTrailingSlash public String items() { return \"\"; }\n"
+                        + "  public void create() { }\n"
+                        + "  @PUT public void remove() { }\n"
+                        + "}\n"));
+
+        final RoutePolicyIndex index = index("app.TrailingSlashRoutes",
+                PolicyImpl.ALLOW);
+
+        assertEquals(PolicyImpl.PROHIBIT, index.lookup("GET", "api/direct"));
+        assertEquals(PolicyImpl.REQUIRE, index.lookup("GET", "api/items"));
+        assertEquals(PolicyImpl.PROHIBIT, index.lookup("POST", "api"));
+        assertEquals(PolicyImpl.PROHIBIT, index.lookup("PUT", "api"));
+        assertNull(index.lookup("DELETE", "api"));
+
+    }
+
+    @Test
+    public void testGeneratedTable() throws Exception {
+
+        assertTrue(errors(), compile(Arrays.asList("-A"
+                + RoutePolicyProcessor.TABLE_OPTION + "=gen.Routes"), PLAIN,
+                RESOURCE));
+
+        final RoutePolicyIndex index = index("gen.Routes", PolicyImpl.ALLOW);
+
+        assertEquals(PolicyImpl.REQUIRE, index.lookup("GET", "data"));
+        assertEquals(PolicyImpl.ALLOW, index.lookup("POST", "data"));
+        assertEquals(PolicyImpl.PROHIBIT, index.lookup("GET", "data/7"));
+        assertEquals(PolicyImpl.ALLOW, index.lookup("PUT", "data/7"));
+        assertEquals(PolicyImpl.ALLOW, index.lookup("GET", "plain/x"));
+        assertNull(index.lookup("GET", "data/7/8"));
+
+    }
+
+    private boolean compile(final List<String> options,
+            final String... sources) throws IOException {
+
+        final File src = this.tmp.newFolder();
+        final List<File> files = new ArrayList<>();
+        for (final String s : sources) {
+            final Matcher m = TYPE_NAME.matcher(s);
+            assertTrue(m.find());
+            final String name = m.group(1);
+            final String pkg = s.substring(8, s.indexOf(';'));
+            final File f = new File(src, pkg.replace('.', '/') + "/" + name
+                    + ".java");
+            f.getParentFile().mkdirs();
+            Files.write(f.toPath(), s.getBytes(StandardCharsets.UTF_8));
+            files.add(f);
+        }
+
+        final List<String> args = new ArrayList<>(Arrays.asList("-d",
+                this.out.getPath(), "-classpath",
+                System.getProperty("java.class.path"), "-processor",
+                RoutePolicyProcessor.class.getName()));
+        args.addAll(options);
+
+        try (StandardJavaFileManager fm = this.compiler.getStandardFileManager(
+                this.diagnostics, null, StandardCharsets.UTF_8)) {
+            return this.compiler.getTask(null, fm, this.diagnostics, args,
+                    null, fm.getJavaFileObjectsFromFiles(files)).call();
+        }
+
+    }
+
+    private String errors() {
+        final StringBuilder b = new StringBuilder();
+        for (final Diagnostic<? extends JavaFileObject> d : this.diagnostics
+                .getDiagnostics()) {
+            b.append(d.getMessage(null)).append('\n');
+        }
+        return b.toString();
+    }
+
+    private RoutePolicyIndex index(final String table,
+            final PolicyImpl defaultPolicy) throws Exception {
+        try (URLClassLoader loader = new URLClassLoader(
+                new URL[] { this.out.toURI().toURL() }, getClass()
+                        .getClassLoader())) {
+            return (RoutePolicyIndex) loader.loadClass(table)
+                    .getMethod("index", Policy.class)
+                    .invoke(null, defaultPolicy);
+        }
+    }
+
+}
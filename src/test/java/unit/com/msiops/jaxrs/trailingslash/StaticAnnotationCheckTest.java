@@ -0,0 +1,129 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Path;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.Test;
+
+import com.msiops.jaxrs.trailingslash.AllowTrailingSlash;
+import com.msiops.jaxrs.trailingslash.EnforcementOptions;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.RequireTrailingSlash;
+import com.msiops.jaxrs.trailingslash.StaticAnnotationCheck;
+import com.msiops.jaxrs.trailingslash.StaticTrailingSlashFeature;
+
+/**
+ * Check that policies restricted to request methods are refused where the
+ * static filters apply policies.
+ */
+public class StaticAnnotationCheckTest {
+
+    @Test
+    public void testUnrestrictedAccepted() throws Exception {
+
+        final FeatureContext mctx = mock(FeatureContext.class);
+        configure(Restricted.class, "plain", mctx);
+        verifyZeroInteractions(mctx);
+
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRestrictedOnMethod() throws Exception {
+
+        configure(Restricted.class, "restricted", mock(FeatureContext.class));
+
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRestrictedOnClass() throws Exception {
+
+        configure(RestrictedClass.class, "plain", mock(FeatureContext.class));
+
+    }
+
+    @Test
+    public void testDeploymentFails() {
+
+        final ResourceConfig config = new ResourceConfig(Restricted.class)
+                .register(new StaticTrailingSlashFeature());
+        try {
+            new ApplicationHandler(config);
+            fail("restricted policy deployed");
+        } catch (final IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("REQUIRE"));
+        }
+
+    }
+
+    @Test
+    public void testUnselectedPolicyIgnored() {
+
+        final ResourceConfig config = new ResourceConfig(Restricted.class)
+                .register(new StaticTrailingSlashFeature(
+                        EnforcementOptions.DEFAULTS, PolicyImpl.PROHIBIT));
+        new ApplicationHandler(config);
+
+    }
+
+    private void configure(final Class<?> resourceClass, final String method,
+            final FeatureContext context) throws Exception {
+        final ResourceInfo mrinf = mock(ResourceInfo.class);
+        doReturn(resourceClass).when(mrinf).getResourceClass();
+        when(mrinf.getResourceMethod()).thenReturn(
+                resourceClass.getMethod(method));
+        new StaticAnnotationCheck().configure(mrinf, context);
+    }
+
+    @Path("restricted")
+    public static final class Restricted {
+
+        @GET
+        @AllowTrailingSlash
+        public String plain() {
+            return "plain";
+        }
+
+        @Path("x")
+        @GET
+        @RequireTrailingSlash(methods = HttpMethod.GET)
+        public String restricted() {
+            return "restricted";
+        }
+
+    }
+
+    @AllowTrailingSlash(methods = HttpMethod.GET)
+    public static final class RestrictedClass {
+
+        @GET
+        public String plain() {
+            return "plain";
+        }
+
+    }
+
+}
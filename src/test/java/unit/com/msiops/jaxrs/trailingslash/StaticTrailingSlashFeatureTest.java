@@ -0,0 +1,84 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import javax.ws.rs.core.FeatureContext;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.msiops.jaxrs.trailingslash.AllowTrailingSlashStaticFilter;
+import com.msiops.jaxrs.trailingslash.EnforcementOptions;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.ProhibitTrailingSlashStaticFilter;
+import com.msiops.jaxrs.trailingslash.RequireTrailingSlashStaticFilter;
+import com.msiops.jaxrs.trailingslash.StaticAnnotationCheck;
+import com.msiops.jaxrs.trailingslash.StaticTrailingSlashFeature;
+import com.msiops.jaxrs.trailingslash.TrailingSlashEnforcementFilter;
+
+/**
+ * Check explicit registration of the discoverable filters.
+ */
+public class StaticTrailingSlashFeatureTest {
+
+    private FeatureContext mctx;
+
+    @Before
+    public void setup() {
+        this.mctx = mock(FeatureContext.class);
+    }
+
+    @Test
+    public void testRegistersAll() {
+
+        assertTrue(new StaticTrailingSlashFeature().configure(this.mctx));
+
+        verify(this.mctx).register(isA(TrailingSlashEnforcementFilter.class));
+        verify(this.mctx).register(AllowTrailingSlashStaticFilter.class);
+        verify(this.mctx).register(ProhibitTrailingSlashStaticFilter.class);
+        verify(this.mctx).register(RequireTrailingSlashStaticFilter.class);
+        verify(this.mctx).register(isA(StaticAnnotationCheck.class));
+        verifyNoMoreInteractions(this.mctx);
+
+    }
+
+    @Test
+    public void testRegistersSelected() {
+
+        assertTrue(new StaticTrailingSlashFeature(EnforcementOptions.DEFAULTS,
+                PolicyImpl.REQUIRE).configure(this.mctx));
+
+        verify(this.mctx).register(isA(TrailingSlashEnforcementFilter.class));
+        verify(this.mctx).register(RequireTrailingSlashStaticFilter.class);
+        verify(this.mctx).register(isA(StaticAnnotationCheck.class));
+        verifyNoMoreInteractions(this.mctx);
+
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullPolicy() {
+
+        new StaticTrailingSlashFeature(EnforcementOptions.DEFAULTS,
+                (PolicyImpl) null);
+
+    }
+
+}
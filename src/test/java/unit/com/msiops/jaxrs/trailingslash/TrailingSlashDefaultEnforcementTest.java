@@ -19,6 +19,8 @@ package unit.com.msiops.jaxrs.trailingslash;
 import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.*;
 
+import java.net.URI;
+
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerRequestFilter;
 import javax.ws.rs.core.Response;
@@ -90,6 +92,8 @@ public class TrailingSlashDefaultEnforcementTest {
 
     private void config(final String path) {
         when(this.muii.getPath()).thenReturn(path);
+        when(this.muii.getBaseUri()).thenReturn(URI.create("http://h/"));
+        when(this.muii.getRequestUri()).thenReturn(URI.create("http://h/" + path));
     }
 
     private Matcher<Response> matchesStatus(final Status status) {
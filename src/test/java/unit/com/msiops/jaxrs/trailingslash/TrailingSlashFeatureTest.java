@@ -0,0 +1,206 @@
+/*
+ * Licensed to Media Science International (MSI) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. MSI
+ * licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the
+ * License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package unit.com.msiops.jaxrs.trailingslash;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.mockito.ArgumentCaptor;
+
+import com.msiops.jaxrs.trailingslash.AllowTrailingSlash;
+import com.msiops.jaxrs.trailingslash.PolicyImpl;
+import com.msiops.jaxrs.trailingslash.ProhibitTrailingSlash;
+import com.msiops.jaxrs.trailingslash.RequireTrailingSlash;
+import com.msiops.jaxrs.trailingslash.TrailingSlashEnforcementFilter;
+import com.msiops.jaxrs.trailingslash.TrailingSlashFeature;
+
+/**
+ * Check deploy-time policy resolution.
+ */
+@RunWith(Parameterized.class)
+public class TrailingSlashFeatureTest {
+
+    @Parameters
+    public static Collection<Object[]> cases() {
+
+        /*
+         * resource class, method name, expected effective policy. Null means
+         * no filter is bound.
+         */
+        return Arrays.asList(new Object[][] {
+                { Plain.class, "plain", TrailingSlashEnforcementFilter.DEFAULT_POLICY },
+                { Plain.class, "allow", null },
+                { Plain.class, "prohibit", PolicyImpl.PROHIBIT },
+                { Plain.class, "require", PolicyImpl.REQUIRE },
+                { Required.class, "plain", PolicyImpl.REQUIRE },
+                { Required.class, "allow", null },
+                { Required.class, "prohibit", PolicyImpl.PROHIBIT },
+                { PerMethod.class, "list", null },
+                { PerMethod.class, "create", PolicyImpl.REQUIRE },
+                { PerMethod.class, "replace", PolicyImpl.REQUIRE },
+                { PerMethod.class, "remove", PolicyImpl.PROHIBIT } });
+
+    }
+
+    private final PolicyImpl expected;
+
+    private final String methodName;
+
+    private FeatureContext mctx;
+
+    private ResourceInfo mrinf;
+
+    private final Class<?> resourceClass;
+
+    public TrailingSlashFeatureTest(final Class<?> resourceClass,
+            final String methodName, final PolicyImpl expected) {
+        this.resourceClass = resourceClass;
+        this.methodName = methodName;
+        this.expected = expected;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        this.mctx = mock(FeatureContext.class);
+        this.mrinf = mock(ResourceInfo.class);
+        doReturn(this.resourceClass).when(this.mrinf).getResourceClass();
+        when(this.mrinf.getResourceMethod()).thenReturn(
+                this.resourceClass.getMethod(this.methodName));
+    }
+
+    /**
+     * Ensure the bound filter enforces the effective policy without reading
+     * request properties.
+     */
+    @Test
+    public void testResolvedPolicy() throws Exception {
+
+        new TrailingSlashFeature().configure(this.mrinf, this.mctx);
+
+        if (this.expected == null) {
+            verify(this.mctx, never()).register(any());
+            return;
+        }
+
+        final ArgumentCaptor<Object> registered = ArgumentCaptor
+                .forClass(Object.class);
+        verify(this.mctx).register(registered.capture());
+        final ContainerRequestFilter filter = (ContainerRequestFilter) registered
+                .getValue();
+
+        for (final String path : Arrays.asList("resource", "resource/")) {
+            final ContainerRequestContext mreq = request(path);
+            filter.filter(mreq);
+            verify(mreq, times(this.expected.pass(path) ? 0 : 1)).abortWith(
+                    (Response) any());
+            verify(mreq, never()).getProperty(anyString());
+        }
+
+    }
+
+    private ContainerRequestContext request(final String path) {
+        final ContainerRequestContext mreq = mock(ContainerRequestContext.class);
+        final UriInfo muii = mock(UriInfo.class);
+        when(mreq.getUriInfo()).thenReturn(muii);
+        when(muii.getPath()).thenReturn(path);
+        when(muii.getBaseUri()).thenReturn(URI.create("http://h/"));
+        when(muii.getRequestUri()).thenReturn(URI.create("http://h/" + path));
+        return mreq;
+    }
+
+    public static final class Plain {
+
+        @AllowTrailingSlash
+        public void allow() {
+        }
+
+        public void plain() {
+        }
+
+        @ProhibitTrailingSlash
+        public void prohibit() {
+        }
+
+        @RequireTrailingSlash
+        public void require() {
+        }
+
+    }
+
+    @RequireTrailingSlash
+    public static final class Required {
+
+        @AllowTrailingSlash
+        public void allow() {
+        }
+
+        public void plain() {
+        }
+
+        @ProhibitTrailingSlash
+        public void prohibit() {
+        }
+
+    }
+
+    @RequireTrailingSlash
+    @AllowTrailingSlash(methods = HttpMethod.GET)
+    public static final class PerMethod {
+
+        @POST
+        public void create() {
+        }
+
+        @GET
+        public void list() {
+        }
+
+        @DELETE
+        @ProhibitTrailingSlash(methods = { HttpMethod.PUT, HttpMethod.DELETE })
+        public void remove() {
+        }
+
+        @PUT
+        @ProhibitTrailingSlash(methods = HttpMethod.DELETE)
+        public void replace() {
+        }
+
+    }
+
+}
@@ -19,6 +19,7 @@ package unit.com.msiops.jaxrs.trailingslash;
 import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.*;
 
+import java.net.URI;
 import java.util.Arrays;
 import java.util.Collection;
 
@@ -95,6 +96,8 @@ public class TrailingSlashPolicyEnforcementTest {
         when(this.mreq.getProperty(TrailingSlashEnforcementFilter.REQUEST_KEY)).thenReturn(
                 this.underTest);
         when(this.muii.getPath()).thenReturn(PATH);
+        when(this.muii.getBaseUri()).thenReturn(URI.create("http://h/"));
+        when(this.muii.getRequestUri()).thenReturn(URI.create("http://h/" + PATH));
 
     }
 